@@ -23,7 +23,6 @@ dependencies {
     shadowImplementation(libs.kotlin.stdlib)
     shadowImplementation(project(":slimjar"))
     shadowImplementation("com.google.code.gson:gson:2.10")
-    shadowImplementation(libs.kotlinx.coroutines)
 
     compileOnly(gradleApi())
     compileOnly(gradleKotlinDsl())
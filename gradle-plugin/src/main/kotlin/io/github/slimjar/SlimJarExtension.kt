@@ -4,6 +4,7 @@ import com.github.jengelman.gradle.plugins.shadow.ShadowPlugin
 import io.github.slimjar.func.slimInjectToIsolated
 import io.github.slimjar.relocation.RelocationConfig
 import io.github.slimjar.relocation.RelocationRule
+import io.github.slimjar.repository.RepositoryContentConfig
 import io.github.slimjar.resolver.data.Mirror
 import io.github.slimjar.task.SlimJar
 import org.gradle.api.Action
@@ -20,6 +21,8 @@ public abstract class SlimJarExtension(project: Project) {
 
     @Transient internal val isolatedProjects = mutableSetOf<Project>()
 
+    @Transient internal val repositoryContents = mutableMapOf<String, RepositoryContentConfig>()
+
     /**
      * Sets a global repositories that will be used to resolve dependencies,
      * If not set each dependency will attempt to resolve from one of the projects repositories.
@@ -46,6 +49,14 @@ public abstract class SlimJarExtension(project: Project) {
     public val requireChecksum: Property<Boolean> = project.objects.property(Boolean::class.java)
         .convention(false).apply(Property<*>::finalizeValueOnRead)
 
+    /**
+     * Limits which groups are looked up in the repository at [url] when resolving at runtime,
+     * so dependencies are never enquired about in repositories that cannot host them.
+     */
+    public fun repositoryContent(url: String, configure: Action<RepositoryContentConfig>) {
+        configure.execute(repositoryContents.getOrPut(url.removeSuffix("/")) { RepositoryContentConfig() })
+    }
+
     /**
      * @receiver the original path
      * @param target the prefixed path to relocate to.
@@ -0,0 +1,45 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.repository
+
+/**
+ * Group patterns limiting which dependencies are looked up in a repository at runtime,
+ * similar to Gradle's repository content filtering. `*` matches any characters.
+ */
+public class RepositoryContentConfig {
+
+    internal val includes = mutableListOf<String>()
+    internal val excludes = mutableListOf<String>()
+
+    public fun includeGroup(vararg pattern: String): RepositoryContentConfig {
+        includes.addAll(pattern)
+        return this
+    }
+
+    public fun excludeGroup(vararg pattern: String): RepositoryContentConfig {
+        excludes.addAll(pattern)
+        return this
+    }
+}
@@ -40,23 +40,14 @@ import io.github.slimjar.resolver.enquirer.PingingRepositoryEnquirerFactory
 import io.github.slimjar.resolver.mirrors.SimpleMirrorSelector
 import io.github.slimjar.resolver.pinger.HttpURLPinger
 import io.github.slimjar.resolver.strategy.MavenChecksumPathResolutionStrategy
+import io.github.slimjar.resolver.strategy.MavenMetadataSnapshotPathResolutionStrategy
 import io.github.slimjar.resolver.strategy.MavenPathResolutionStrategy
 import io.github.slimjar.resolver.strategy.MavenPomPathResolutionStrategy
 import io.github.slimjar.resolver.strategy.MavenSnapshotPathResolutionStrategy
 import io.github.slimjar.resolver.strategy.MediatingPathResolutionStrategy
 import io.github.slimjar.slimExtension
 import io.github.slimjar.targetedJarTask
-import kotlinx.coroutines.CoroutineScope
-import kotlinx.coroutines.Dispatchers.IO
-import kotlinx.coroutines.async
-import kotlinx.coroutines.flow.Flow
-import kotlinx.coroutines.flow.asFlow
-import kotlinx.coroutines.flow.buffer
-import kotlinx.coroutines.flow.collect
-import kotlinx.coroutines.flow.filter
-import kotlinx.coroutines.flow.map
-import kotlinx.coroutines.flow.onEach
-import kotlinx.coroutines.runBlocking
+import io.github.slimjar.util.Connections
 import org.gradle.api.DefaultTask
 import org.gradle.api.artifacts.Configuration
 import org.gradle.api.artifacts.ResolvableDependencies
@@ -75,6 +66,7 @@ import java.io.File
 import java.io.FileReader
 import java.io.FileWriter
 import java.net.URL
+import java.time.Duration
 import javax.inject.Inject
 
 @CacheableTask
@@ -154,12 +146,19 @@ public abstract class SlimJar @Inject constructor(
         val dependencies = config.incoming.getSlimDependencies().toMutableSet().flatten()
         val repositories = repositories.getMavenRepos()
 
+        val urlPinger = HttpURLPinger()
         val releaseStrategy = MavenPathResolutionStrategy()
-        val snapshotStrategy = MavenSnapshotPathResolutionStrategy()
+        // Metadata is fetched fresh for every build so the exact timestamped snapshot gets pre-resolved.
+        val snapshotStrategy = MavenMetadataSnapshotPathResolutionStrategy(
+            temporaryDir.toPath(),
+            MavenSnapshotPathResolutionStrategy(),
+            Runnable::run,
+            Duration.ZERO,
+            urlPinger
+        )
         val resolutionStrategy = MediatingPathResolutionStrategy(releaseStrategy, snapshotStrategy)
         val pomURLCreationStrategy = MavenPomPathResolutionStrategy()
         val checksumResolutionStrategy = MavenChecksumPathResolutionStrategy("SHA-1", resolutionStrategy)
-        val urlPinger = HttpURLPinger()
         val enquirerFactory = PingingRepositoryEnquirerFactory(
             resolutionStrategy,
             checksumResolutionStrategy,
@@ -175,50 +174,53 @@ public abstract class SlimJar @Inject constructor(
         )
 
         val results = mutableMapOf<String, ResolutionResult>()
-        // TODO: Cleanup this mess
-        runBlocking(IO) {
-            val globalRepositoryEnquirer = extension.globalRepositories.map { repos ->
-                repos.map { repoString -> enquirerFactory.create(Repository(URL(repoString))) }
-            }
+        val globalRepositoryEnquirer = extension.globalRepositories.map { repos ->
+            repos.map { repoString -> enquirerFactory.create(Repository(URL(repoString))) }
+        }
 
-            dependencies.asFlow()
-                .filter { dep ->
-                    // TODO: Ensure existing results match global if present
-                    preResolved[dep.toString()]?.let { pre ->
-                        repositories.none { r -> pre.repository.url().toString() == r.url().toString() }
-                    } ?: true
-                }.concurrentMap(this, 16) { dep ->
-                    dep to if (globalRepositoryEnquirer.isPresent) {
-                        resolver.resolve(dep, globalRepositoryEnquirer.get())
-                    } else {
-                        resolver.resolve(dep)
-                    }
-                }.filter { (dep, result) ->
-                    if (!result.isEmpty) return@filter true
-
-                    logger.warn("Failed to resolve dependency $dep")
-                    if (extension.requirePreResolve.get()) {
-                        error(
-                            """
-                            Failed to resolve dependency $dep during pre-resolve.
-                            Please ensure that the dependency is available in the gradle repositories or global repositories.
-                            Or disable required pre-resolve in the slimJar extension.
-                            """.trimIndent()
-                        )
-                    }
-
-                    false
-                }.map { (dep, result) -> dep to result.get() }.onEach { (dep, result) ->
-                    if (!extension.requireChecksum.get() || result.checksumURL != null) return@onEach
-                    logger.warn("Failed to resolve checksum for dependency $dep")
+        val unresolved = dependencies.filter { dep ->
+            // TODO: Ensure existing results match global if present
+            preResolved[dep.toString()]?.let { pre ->
+                // Results written before checksums were embedded are resolved again to pick one up.
+                (pre.checksum == null && pre.checksumURL != null) ||
+                    repositories.none { r -> pre.repository.url().toString() == r.url().toString() }
+            } ?: true
+        }
+        val resolutions = if (globalRepositoryEnquirer.isPresent) {
+            resolver.resolveAll(unresolved, globalRepositoryEnquirer.get())
+        } else {
+            resolver.resolveAll(unresolved)
+        }
+        // Checksums are fetched as soon as each dependency resolves, still on the resolver's threads.
+        resolutions.mapValues { (dep, future) ->
+            future.thenApply { result -> result.map { it.withInlineChecksum(dep) } }
+        }.forEach { (dep, future) ->
+            val result = future.join()
+            if (result.isEmpty) {
+                logger.warn("Failed to resolve dependency $dep")
+                if (extension.requirePreResolve.get()) {
                     error(
                         """
-                            Failed to resolve checksum for dependency $dep during pre-resolve.
-                            Please ensure that the dependency has a checksum.
-                            Or disable required checksum in the slimJar extension.
+                        Failed to resolve dependency $dep during pre-resolve.
+                        Please ensure that the dependency is available in the gradle repositories or global repositories.
+                        Or disable required pre-resolve in the slimJar extension.
                         """.trimIndent()
                     )
-                }.onEach { (dep, result) -> results[dep.toString()] = result }.collect()
+                }
+                return@forEach
+            }
+
+            if (extension.requireChecksum.get() && result.get().checksumURL == null) {
+                logger.warn("Failed to resolve checksum for dependency $dep")
+                error(
+                    """
+                        Failed to resolve checksum for dependency $dep during pre-resolve.
+                        Please ensure that the dependency has a checksum.
+                        Or disable required checksum in the slimJar extension.
+                    """.trimIndent()
+                )
+            }
+            results[dep.toString()] = result.get()
         }
 
         preResolved.forEach { results.putIfAbsent(it.key, it.value) }
@@ -232,6 +234,27 @@ public abstract class SlimJar @Inject constructor(
         withShadowTask { from(file) }
     }
 
+    /**
+     * Downloads the checksum file at resolution time and embeds its digest,
+     * so the runtime verifier does not need another request per dependency.
+     */
+    private fun ResolutionResult.withInlineChecksum(dependency: Dependency): ResolutionResult {
+        val url = checksumURL ?: return this
+        return runCatching {
+            val connection = Connections.createDownloadConnection(url)
+            try {
+                connection.getInputStream().bufferedReader().use { it.readText() }
+            } finally {
+                Connections.tryDisconnect(connection)
+            }
+        }.map { content ->
+            // Some repositories append the file name after the digest.
+            content.trim().substringBefore(' ').substringBefore('\t').lowercase()
+        }.onFailure {
+            logger.warn("Failed to fetch checksum for dependency $dependency from $url", it)
+        }.getOrNull()?.takeIf { it.isNotEmpty() }?.let(::withChecksum) ?: this
+    }
+
     /**
      * Turns a [RenderableDependency] into a [Dependency] with all its transitives.
      */
@@ -276,7 +299,10 @@ public abstract class SlimJar @Inject constructor(
     private fun RepositoryHandler.getMavenRepos() = this.filterIsInstance<MavenArtifactRepository>()
         .filterNot { it.url.toString().startsWith("file") }
         .toSet()
-        .map { Repository(it.url.toURL()) }
+        .map {
+            val content = extension.repositoryContents[it.url.toString().removeSuffix("/")]
+            Repository(it.url.toURL(), content?.includes.orEmpty(), content?.excludes.orEmpty())
+        }
 
     private fun ResolvableDependencies.getSlimDependencies(): List<Dependency> =
         RenderableModuleResult(this.resolutionResult.root).children
@@ -287,15 +313,6 @@ public abstract class SlimJar @Inject constructor(
         return this.flatMap { it.transitive().flatten() + it }.toMutableSet()
     }
 
-    private fun <T, R> Flow<T>.concurrentMap(
-        scope: CoroutineScope,
-        concurrencyLevel: Int,
-        transform: suspend (T) -> R
-    ): Flow<R> = this
-        .map { scope.async { transform(it) } }
-        .buffer(concurrencyLevel)
-        .map { it.await() }
-
     protected open fun withShadowTask(
         action: ShadowJar.() -> Unit
     ): ShadowJar? = (project.tasks.findByName("shadowJar") as? ShadowJar)?.apply(action)
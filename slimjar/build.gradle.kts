@@ -3,6 +3,7 @@
 plugins {
     alias(libs.plugins.shadow)
     `maven-publish`
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 dependencies {
@@ -57,6 +58,13 @@ publishing {
     }
 }
 
+jmh {
+    // Run with ./gradlew :slimjar:jmh, results end up in build/results/jmh.
+    warmupIterations.set(2)
+    iterations.set(5)
+    fork.set(1)
+}
+
 tasks.jar {
     dependsOn(project(":loader-agent").tasks.jar)
     doFirst {
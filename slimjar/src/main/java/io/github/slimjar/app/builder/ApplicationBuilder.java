@@ -26,6 +26,9 @@ package io.github.slimjar.app.builder;
 
 import io.github.slimjar.app.Application;
 import io.github.slimjar.downloader.DependencyDownloaderFactory;
+import io.github.slimjar.downloader.DigestingDependencyDownloaderFactory;
+import io.github.slimjar.downloader.MavenLocalRepository;
+import io.github.slimjar.downloader.OfflineDependencyDownloaderFactory;
 import io.github.slimjar.downloader.URLDependencyDownloaderFactory;
 import io.github.slimjar.downloader.output.DependencyOutputWriterFactory;
 import io.github.slimjar.downloader.output.OutputWriterFactory;
@@ -34,6 +37,7 @@ import io.github.slimjar.downloader.strategy.FilePathStrategy;
 import io.github.slimjar.downloader.verify.*;
 import io.github.slimjar.injector.DependencyInjector;
 import io.github.slimjar.injector.DependencyInjectorFactory;
+import io.github.slimjar.injector.PipelineConfiguration;
 import io.github.slimjar.injector.SimpleDependencyInjectorFactory;
 import io.github.slimjar.injector.helper.InjectionHelperFactory;
 import io.github.slimjar.injector.loader.Injectable;
@@ -50,6 +54,10 @@ import io.github.slimjar.relocation.meta.FlatFileMetaMediatorFactory;
 import io.github.slimjar.relocation.meta.MetaMediatorFactory;
 import io.github.slimjar.resolver.CachingDependencyResolverFactory;
 import io.github.slimjar.resolver.DependencyResolverFactory;
+import io.github.slimjar.resolver.OfflineDependencyResolverFactory;
+import io.github.slimjar.resolver.RepositoryScheduler;
+import io.github.slimjar.resolver.ResolutionDeadlineExceededException;
+import io.github.slimjar.resolver.ResolutionStore;
 import io.github.slimjar.resolver.data.Repository;
 import io.github.slimjar.resolver.enquirer.PingingRepositoryEnquirerFactory;
 import io.github.slimjar.resolver.enquirer.RepositoryEnquirerFactory;
@@ -67,17 +75,23 @@ import io.github.slimjar.resolver.reader.resolution.GsonPreResolutionDataProvide
 import io.github.slimjar.resolver.reader.resolution.PreResolutionDataProvider;
 import io.github.slimjar.resolver.reader.resolution.PreResolutionDataProviderFactory;
 import io.github.slimjar.resolver.strategy.*;
+import io.github.slimjar.util.CircuitBreaker;
+import io.github.slimjar.util.Concurrency;
+import io.github.slimjar.util.FileLocks;
 
 import java.io.File;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Objects;
+import java.util.concurrent.ExecutorService;
 
 /**
  * Serves as a configuration for different components slimjar will use during injection.
@@ -110,6 +124,24 @@ public abstract class ApplicationBuilder {
     private DependencyVerifierFactory verifierFactory;
     private MirrorSelector mirrorSelector;
     private ProcessLogger logger;
+    private ExecutorService executorService;
+    private PipelineConfiguration pipelineConfiguration;
+    private boolean inlineChecksums = true;
+    private InlineChecksumCalculator inlineChecksumCalculator;
+    private boolean verificationIndex = true;
+    private Duration fullVerificationInterval;
+    private boolean resolutionCache = true;
+    private Duration releaseResolutionTtl = ResolutionStore.DEFAULT_RELEASE_TTL;
+    private Duration snapshotResolutionTtl = ResolutionStore.DEFAULT_SNAPSHOT_TTL;
+    private Duration negativeResolutionTtl = ResolutionStore.DEFAULT_NEGATIVE_TTL;
+    private ResolutionStore resolutionStore;
+    private boolean offline;
+    private int circuitBreakerThreshold = CircuitBreaker.DEFAULT_FAILURE_THRESHOLD;
+    private Duration circuitBreakerCoolDown = CircuitBreaker.DEFAULT_COOL_DOWN;
+    private CircuitBreaker circuitBreaker;
+    private Duration resolutionDeadline;
+    private boolean mavenLocalRepository = true;
+    private Path mavenLocalRepositoryPath;
     private URL jarURL = VerifyingRelocationHelperFactory.class.getProtectionDomain().getCodeSource().getLocation();
 
     /**
@@ -272,9 +304,12 @@ public abstract class ApplicationBuilder {
     }
 
     /**
-     *
-     * @param downloaderFactory
-     * @return
+     * Factory that produces a {@link io.github.slimjar.downloader.DependencyDownloader}
+     * The default implementation downloads through {@link java.net.URLConnection},
+     * {@link io.github.slimjar.downloader.HttpClientDependencyDownloaderFactory} reuses pooled HTTP/2 connections per repository instead.
+     * Parallel range downloads of large artifacts are opt-in through its constructor taking a chunk threshold and count.
+     * @param downloaderFactory Factory that produces a DependencyDownloader
+     * @return <code>this</code>
      */
     public final ApplicationBuilder downloaderFactory(final DependencyDownloaderFactory downloaderFactory) {
         this.downloaderFactory = downloaderFactory;
@@ -301,10 +336,167 @@ public abstract class ApplicationBuilder {
         return this;
     }
 
+    /**
+     * Executor used for resolution, repository pinging, downloads and checksum calculation.
+     * Defaults to a shared virtual thread executor on JDK 21+ and a cached daemon thread pool otherwise.
+     * The executor is never shut down by slimjar, its lifecycle remains the caller's responsibility.
+     * @param executorService Executor to run blocking slimjar work on
+     * @return <code>this</code>
+     */
+    public final ApplicationBuilder executorService(final ExecutorService executorService) {
+        this.executorService = executorService;
+        return this;
+    }
+
+    /**
+     * Parallelism of the resolve, download, verify and relocate stages used by the default injector.
+     * Ignored if a custom <code>injectorFactory</code> is provided.
+     * @param pipelineConfiguration Per stage parallelism, see {@link PipelineConfiguration#builder()}
+     * @return <code>this</code>
+     */
+    public final ApplicationBuilder pipelineConfiguration(final PipelineConfiguration pipelineConfiguration) {
+        this.pipelineConfiguration = pipelineConfiguration;
+        return this;
+    }
+
+    /**
+     * Whether downloaded bytes are digested while they are written, so the default verifier does not have to read fresh downloads back.
+     * Only takes effect together with the default <code>verifierFactory</code>.
+     * @param inlineChecksums Enabled by default
+     * @return <code>this</code>
+     */
+    public final ApplicationBuilder inlineChecksums(final boolean inlineChecksums) {
+        this.inlineChecksums = inlineChecksums;
+        return this;
+    }
+
+    /**
+     * Whether digests of verified dependencies are remembered in an index inside the download directory.
+     * Files whose size and modification time did not change since are not hashed again on the next start.
+     * The application jar's own hash, used to tell whether relocated jars belong to this build, is cached the same way.
+     * Only takes effect together with the default <code>verifierFactory</code> and <code>relocationHelperFactory</code>.
+     * @param verificationIndex Enabled by default
+     * @return <code>this</code>
+     */
+    public final ApplicationBuilder verificationIndex(final boolean verificationIndex) {
+        this.verificationIndex = verificationIndex;
+        return this;
+    }
+
+    /**
+     * Maximum age of a verification index entry before the file is fully hashed again regardless of its metadata.
+     * @param fullVerificationInterval Interval between full verifications, null (default) to rely on size and modification time only
+     * @return <code>this</code>
+     */
+    public final ApplicationBuilder fullVerificationInterval(final Duration fullVerificationInterval) {
+        this.fullVerificationInterval = fullVerificationInterval;
+        return this;
+    }
+
+    /**
+     * Whether resolved repository locations are persisted inside the download directory,
+     * so dependencies missing from the pre-resolution file are not enquired about again on every start.
+     * Only takes effect together with the default <code>resolverFactory</code>.
+     * @param resolutionCache Enabled by default
+     * @return <code>this</code>
+     */
+    public final ApplicationBuilder resolutionCache(final boolean resolutionCache) {
+        this.resolutionCache = resolutionCache;
+        return this;
+    }
+
+    /**
+     * How long persisted resolutions are trusted before the repositories are enquired again.
+     * The snapshot TTL is also the interval after which cached <code>maven-metadata.xml</code> files are refreshed in the background.
+     * @param releaseResolutionTtl TTL for release artifacts, null to never expire them
+     * @param snapshotResolutionTtl TTL for snapshot artifacts, null to never expire them
+     * @return <code>this</code>
+     */
+    public final ApplicationBuilder resolutionTtl(final Duration releaseResolutionTtl, final Duration snapshotResolutionTtl) {
+        this.releaseResolutionTtl = releaseResolutionTtl;
+        this.snapshotResolutionTtl = snapshotResolutionTtl;
+        return this;
+    }
+
+    /**
+     * How long a dependency no repository could provide is remembered before the repositories are enquired again.
+     * Failures are persisted alongside the resolutions, so this spans restarts unless <code>resolutionCache</code> is disabled.
+     * @param negativeResolutionTtl TTL for failed resolutions, null to never retry them
+     * @return <code>this</code>
+     */
+    public final ApplicationBuilder negativeResolutionTtl(final Duration negativeResolutionTtl) {
+        this.negativeResolutionTtl = negativeResolutionTtl;
+        return this;
+    }
+
+    /**
+     * Repositories that fail or time out this many times in a row are not contacted again until the cool-down has passed.
+     * Only takes effect together with the default <code>resolverFactory</code> and <code>enquirerFactory</code>.
+     * @param failureThreshold Consecutive failures before a repository is skipped, 3 by default
+     * @param coolDown How long a failing repository is skipped, 30 seconds by default
+     * @return <code>this</code>
+     */
+    public final ApplicationBuilder circuitBreaker(final int failureThreshold, final Duration coolDown) {
+        this.circuitBreakerThreshold = failureThreshold;
+        this.circuitBreakerCoolDown = coolDown;
+        return this;
+    }
+
+    /**
+     * Time budget for enquiring repositories, counted from the first repository enquiry.
+     * Once it is spent, the dependency being resolved fails with a {@link ResolutionDeadlineExceededException}
+     * naming the repositories that did not answer, and so does every later enquiry.
+     * Only takes effect together with the default <code>resolverFactory</code>.
+     * @param resolutionDeadline Budget for resolution, null (default) for none
+     * @return <code>this</code>
+     */
+    public final ApplicationBuilder resolutionDeadline(final Duration resolutionDeadline) {
+        this.resolutionDeadline = resolutionDeadline;
+        return this;
+    }
+
+    /**
+     * Whether artifacts already present in the local Maven repository are linked into the download directory
+     * instead of being downloaded. They are verified like downloads and never used in offline mode.
+     * @param mavenLocalRepository Enabled by default
+     * @return <code>this</code>
+     */
+    public final ApplicationBuilder mavenLocalRepository(final boolean mavenLocalRepository) {
+        this.mavenLocalRepository = mavenLocalRepository;
+        return this;
+    }
+
+    /**
+     * @param mavenLocalRepositoryPath Local Maven repository to use, <code>maven.repo.local</code> or <code>~/.m2/repository</code> by default
+     * @return <code>this</code>
+     */
+    public final ApplicationBuilder mavenLocalRepositoryPath(final Path mavenLocalRepositoryPath) {
+        this.mavenLocalRepositoryPath = mavenLocalRepositoryPath;
+        return this;
+    }
+
+    /**
+     * Whether every dependency has to be served from the download directory, including the ones slimjar bootstraps itself.
+     * No repository, checksum or pinger request is made. Missing artifacts fail the build immediately,
+     * listing everything that is absent instead of stopping at the first one.
+     * Only takes effect together with the default <code>resolverFactory</code>, <code>downloaderFactory</code>,
+     * <code>verifierFactory</code> and <code>injectorFactory</code>.
+     * @param offline Disabled by default
+     * @return <code>this</code>
+     */
+    public final ApplicationBuilder offline(final boolean offline) {
+        this.offline = offline;
+        return this;
+    }
+
     protected final String getApplicationName() {
         return applicationName;
     }
 
+    protected final boolean isOffline() {
+        return offline;
+    }
+
     protected final URL getDependencyFileUrl() {
         if (dependencyFileUrl == null) {
             this.dependencyFileUrl = getClass().getClassLoader().getResource("slimjar.json");
@@ -328,7 +520,7 @@ public abstract class ApplicationBuilder {
 
     protected final RelocatorFactory getRelocatorFactory() throws ReflectiveOperationException, NoSuchAlgorithmException, IOException, URISyntaxException, InterruptedException {
         if (relocatorFactory == null) {
-            final JarRelocatorFacadeFactory jarRelocatorFacadeFactory = ReflectiveJarRelocatorFacadeFactory.create(getDownloadDirectoryPath(), Collections.singleton(Repository.central()));
+            final JarRelocatorFacadeFactory jarRelocatorFacadeFactory = ReflectiveJarRelocatorFacadeFactory.create(getDownloadDirectoryPath(), Collections.singleton(Repository.central()), offline);
             this.relocatorFactory = new JarFileRelocatorFactory(jarRelocatorFacadeFactory);
         }
         return relocatorFactory;
@@ -336,7 +528,7 @@ public abstract class ApplicationBuilder {
 
     protected final DependencyDataProviderFactory getModuleDataProviderFactory() throws URISyntaxException, ReflectiveOperationException, NoSuchAlgorithmException, IOException, InterruptedException {
         if (moduleDataProviderFactory == null) {
-            final GsonFacadeFactory gsonFacadeFactory = ReflectiveGsonFacadeFactory.create(getDownloadDirectoryPath(), Collections.singleton(Repository.central()));
+            final GsonFacadeFactory gsonFacadeFactory = ReflectiveGsonFacadeFactory.create(getDownloadDirectoryPath(), Collections.singleton(Repository.central()), offline);
             this.moduleDataProviderFactory = new ExternalDependencyDataProviderFactory(gsonFacadeFactory);
         }
         return moduleDataProviderFactory;
@@ -344,7 +536,7 @@ public abstract class ApplicationBuilder {
 
     protected final DependencyDataProviderFactory getDataProviderFactory() throws URISyntaxException, ReflectiveOperationException, NoSuchAlgorithmException, IOException, InterruptedException {
         if (dataProviderFactory == null) {
-            final GsonFacadeFactory gsonFacadeFactory = ReflectiveGsonFacadeFactory.create(getDownloadDirectoryPath(), Collections.singleton(Repository.central()));
+            final GsonFacadeFactory gsonFacadeFactory = ReflectiveGsonFacadeFactory.create(getDownloadDirectoryPath(), Collections.singleton(Repository.central()), offline);
             this.dataProviderFactory = new GsonDependencyDataProviderFactory(gsonFacadeFactory);
         }
         return dataProviderFactory;
@@ -352,7 +544,7 @@ public abstract class ApplicationBuilder {
 
     protected final PreResolutionDataProviderFactory getPreResolutionDataProviderFactory() throws URISyntaxException, ReflectiveOperationException, NoSuchAlgorithmException, IOException, InterruptedException {
         if (preResolutionDataProviderFactory == null) {
-            final GsonFacadeFactory gsonFacadeFactory = ReflectiveGsonFacadeFactory.create(getDownloadDirectoryPath(), Collections.singleton(Repository.central()));
+            final GsonFacadeFactory gsonFacadeFactory = ReflectiveGsonFacadeFactory.create(getDownloadDirectoryPath(), Collections.singleton(Repository.central()), offline);
             this.preResolutionDataProviderFactory = new GsonPreResolutionDataProviderFactory(gsonFacadeFactory);
         }
         return preResolutionDataProviderFactory;
@@ -360,7 +552,11 @@ public abstract class ApplicationBuilder {
 
     protected final RelocationHelperFactory getRelocationHelperFactory() throws NoSuchAlgorithmException, IOException, URISyntaxException, InterruptedException {
         if (relocationHelperFactory == null) {
-            final FileChecksumCalculator checksumCalculator = new FileChecksumCalculator("SHA-256");
+            ChecksumCalculator checksumCalculator = new MappedFileChecksumCalculator("SHA-256");
+            if (verificationIndex) {
+                final VerificationIndex index = VerificationIndex.load(getDownloadDirectoryPath().resolve("verification-SHA-256.index"));
+                checksumCalculator = new IndexedChecksumCalculator(checksumCalculator, index, fullVerificationInterval);
+            }
             final FilePathStrategy pathStrategy = FilePathStrategy.createRelocationStrategy(getDownloadDirectoryPath().toFile(), getApplicationName());
             final MetaMediatorFactory mediatorFactory = new FlatFileMetaMediatorFactory();
             this.relocationHelperFactory = new VerifyingRelocationHelperFactory(checksumCalculator, pathStrategy, mediatorFactory, jarURL);
@@ -368,52 +564,141 @@ public abstract class ApplicationBuilder {
         return relocationHelperFactory;
     }
 
+    protected final PipelineConfiguration getPipelineConfiguration() {
+        if (pipelineConfiguration == null) {
+            this.pipelineConfiguration = PipelineConfiguration.builder().build();
+        }
+        return pipelineConfiguration;
+    }
+
+    protected final ExecutorService getExecutorService() {
+        if (executorService == null) {
+            this.executorService = Concurrency.defaultExecutor();
+        }
+        return executorService;
+    }
+
     protected final DependencyInjectorFactory getInjectorFactory() {
         if (injectorFactory == null) {
-            this.injectorFactory = new SimpleDependencyInjectorFactory();
+            this.injectorFactory = new SimpleDependencyInjectorFactory(getExecutorService(), getPipelineConfiguration(), offline);
         }
         return injectorFactory;
     }
 
-    protected final DependencyResolverFactory getResolverFactory() {
+    protected final DependencyResolverFactory getResolverFactory() throws IOException, InterruptedException {
+        if (resolverFactory == null && offline) {
+            this.resolverFactory = new OfflineDependencyResolverFactory(getResolutionStore());
+        }
         if (resolverFactory == null) {
-            final URLPinger pinger = new HttpURLPinger();
-            this.resolverFactory = new CachingDependencyResolverFactory(pinger);
+            final URLPinger pinger = new HttpURLPinger(HttpURLPinger.DEFAULT_CONNECT_TIMEOUT, HttpURLPinger.DEFAULT_READ_TIMEOUT, getCircuitBreaker());
+            final RepositoryScheduler repositoryScheduler = new RepositoryScheduler(getExecutorService(), RepositoryScheduler.DEFAULT_HEDGE_DELAY, resolutionDeadline);
+            this.resolverFactory = new CachingDependencyResolverFactory(pinger, repositoryScheduler, getResolutionStore(), negativeResolutionTtl);
         }
         return resolverFactory;
     }
 
+    /**
+     * @return Persistent resolution store inside the download directory, null if disabled
+     */
+    protected final ResolutionStore getResolutionStore() throws IOException, InterruptedException {
+        if (resolutionStore == null && resolutionCache) {
+            // Offline an expired resolution is still the best information available.
+            final Path storeFile = getDownloadDirectoryPath().resolve("resolutions.index");
+            this.resolutionStore = offline
+                    ? ResolutionStore.load(storeFile, null, null)
+                    : ResolutionStore.load(storeFile, releaseResolutionTtl, snapshotResolutionTtl, negativeResolutionTtl);
+        }
+        return resolutionStore;
+    }
+
     protected final RepositoryEnquirerFactory getEnquirerFactory() {
         if (enquirerFactory == null) {
+            final HttpURLPinger urlPinger = new HttpURLPinger(HttpURLPinger.DEFAULT_CONNECT_TIMEOUT, HttpURLPinger.DEFAULT_READ_TIMEOUT, getCircuitBreaker());
             final PathResolutionStrategy releaseStrategy = new MavenPathResolutionStrategy();
-            final PathResolutionStrategy snapshotStrategy = new MavenSnapshotPathResolutionStrategy();
+            final PathResolutionStrategy snapshotStrategy = new MavenMetadataSnapshotPathResolutionStrategy(
+                getDownloadDirectoryPath().resolve("metadata"),
+                new MavenSnapshotPathResolutionStrategy(),
+                getExecutorService(),
+                snapshotResolutionTtl,
+                urlPinger,
+                getSnapshotUpdateListener()
+            );
             final PathResolutionStrategy resolutionStrategy = new MediatingPathResolutionStrategy(releaseStrategy, snapshotStrategy);
             final PathResolutionStrategy pomURLCreationStrategy = new MavenPomPathResolutionStrategy();
             final PathResolutionStrategy checksumResolutionStrategy = new MavenChecksumPathResolutionStrategy("SHA-1", resolutionStrategy);
-            final URLPinger urlPinger = new HttpURLPinger();
-            this.enquirerFactory = new PingingRepositoryEnquirerFactory(resolutionStrategy, checksumResolutionStrategy, pomURLCreationStrategy, urlPinger);
+            this.enquirerFactory = new PingingRepositoryEnquirerFactory(resolutionStrategy, checksumResolutionStrategy, pomURLCreationStrategy, urlPinger, getExecutorService());
         }
         return enquirerFactory;
     }
 
+    /**
+     * Drops the downloaded copy of a snapshot and its checksum once the repository published a newer build,
+     * both are stored under the snapshot version and would otherwise keep passing verification.
+     * Not done under the download lock, the resolution may run while this very artifact is being downloaded.
+     */
+    private SnapshotUpdateListener getSnapshotUpdateListener() {
+        final FilePathStrategy artifactStrategy = FilePathStrategy.createDefault(getDownloadDirectoryPath().toFile());
+        final FilePathStrategy checksumStrategy = ChecksumFilePathStrategy.createStrategy(getDownloadDirectoryPath().toFile(), "SHA-1");
+        return dependency -> {
+            Files.deleteIfExists(artifactStrategy.selectFileFor(dependency).toPath());
+            Files.deleteIfExists(checksumStrategy.selectFileFor(dependency).toPath());
+        };
+    }
+
+    /**
+     * @return Circuit breaker shared by the default pingers, so a repository that failed for one is skipped by all
+     */
+    protected final CircuitBreaker getCircuitBreaker() {
+        if (circuitBreaker == null) {
+            this.circuitBreaker = new CircuitBreaker(circuitBreakerThreshold, circuitBreakerCoolDown);
+        }
+        return circuitBreaker;
+    }
+
     protected final DependencyDownloaderFactory getDownloaderFactory() {
         if (downloaderFactory == null) {
-            this.downloaderFactory = new URLDependencyDownloaderFactory();
+            this.downloaderFactory = offline ? new OfflineDependencyDownloaderFactory() : new URLDependencyDownloaderFactory();
         }
         return downloaderFactory;
     }
 
-    protected final DependencyVerifierFactory getVerifierFactory() throws NoSuchAlgorithmException {
+    protected final DependencyVerifierFactory getVerifierFactory() throws NoSuchAlgorithmException, IOException, InterruptedException {
         if (verifierFactory == null) {
             final FilePathStrategy filePathStrategy = ChecksumFilePathStrategy.createStrategy(getDownloadDirectoryPath().toFile(), "SHA-1");
             final OutputWriterFactory checksumOutputFactory = new DependencyOutputWriterFactory(filePathStrategy);
             final DependencyVerifierFactory fallback = new PassthroughDependencyVerifierFactory();
-            final ChecksumCalculator checksumCalculator = new FileChecksumCalculator("SHA-1");
-            this.verifierFactory = new ChecksumDependencyVerifierFactory(checksumOutputFactory, fallback, checksumCalculator);
+            ChecksumCalculator checksumCalculator = new MappedFileChecksumCalculator("SHA-1");
+            if (inlineChecksums) {
+                checksumCalculator = getInlineChecksumCalculator(checksumCalculator);
+            }
+            if (verificationIndex) {
+                final VerificationIndex index = VerificationIndex.load(getDownloadDirectoryPath().resolve("verification-SHA-1.index"));
+                checksumCalculator = new IndexedChecksumCalculator(checksumCalculator, index, fullVerificationInterval);
+            }
+            this.verifierFactory = new ChecksumDependencyVerifierFactory(checksumOutputFactory, fallback, checksumCalculator, offline);
         }
         return verifierFactory;
     }
 
+    /**
+     * @return Local Maven repository tier, null if disabled or not present
+     */
+    protected final MavenLocalRepository getMavenLocalRepository() {
+        // Offline starts only use the download directory.
+        if (!mavenLocalRepository || offline) return null;
+        if (mavenLocalRepositoryPath == null) {
+            return MavenLocalRepository.createDefault();
+        }
+        return new MavenLocalRepository(mavenLocalRepositoryPath.toFile());
+    }
+
+    private InlineChecksumCalculator getInlineChecksumCalculator(final ChecksumCalculator fallback) {
+        if (inlineChecksumCalculator == null) {
+            this.inlineChecksumCalculator = new InlineChecksumCalculator("SHA-1", fallback);
+        }
+        return inlineChecksumCalculator;
+    }
+
     protected final MirrorSelector getMirrorSelector() throws MalformedURLException {
         if (mirrorSelector == null) {
             mirrorSelector = new SimpleMirrorSelector();
@@ -428,6 +713,11 @@ public abstract class ApplicationBuilder {
     }
 
     protected final DependencyInjector createInjector() throws IOException, URISyntaxException, NoSuchAlgorithmException, ReflectiveOperationException, InterruptedException {
+        final DependencyVerifierFactory dependencyVerifierFactory = getVerifierFactory();
+        // The default verifier consumes checksums recorded while downloading, when inline checksums are enabled.
+        final DependencyDownloaderFactory dependencyDownloaderFactory = inlineChecksumCalculator == null
+                ? getDownloaderFactory()
+                : new DigestingDependencyDownloaderFactory(getDownloaderFactory(), inlineChecksumCalculator);
         final InjectionHelperFactory injectionHelperFactory = new InjectionHelperFactory(
                 getDownloadDirectoryPath(),
                 getRelocatorFactory(),
@@ -436,9 +726,10 @@ public abstract class ApplicationBuilder {
                 getInjectorFactory(),
                 getResolverFactory(),
                 getEnquirerFactory(),
-                getDownloaderFactory(),
-                getVerifierFactory(),
-                getMirrorSelector()
+                dependencyDownloaderFactory,
+                dependencyVerifierFactory,
+                getMirrorSelector(),
+                getMavenLocalRepository()
         );
         return getInjectorFactory().create(injectionHelperFactory);
     }
@@ -447,6 +738,8 @@ public abstract class ApplicationBuilder {
         final MediatingProcessLogger mediatingLogger = LogDispatcher.getMediatingLogger();
         final ProcessLogger logger = getLogger();
         mediatingLogger.addLogger(logger);
+        // Before anything in the download directory is locked, so every process puts its lock files in the same place.
+        FileLocks.createLockDirectory(getDownloadDirectoryPath());
         final Application result = buildApplication();
         mediatingLogger.removeLogger(logger);
         return result;
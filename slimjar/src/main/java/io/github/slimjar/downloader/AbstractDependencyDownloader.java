@@ -0,0 +1,118 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.downloader;
+
+import io.github.slimjar.downloader.output.OutputWriter;
+import io.github.slimjar.downloader.output.OutputWriterFactory;
+import io.github.slimjar.downloader.verify.DependencyVerifier;
+import io.github.slimjar.logging.LogDispatcher;
+import io.github.slimjar.logging.ProcessLogger;
+import io.github.slimjar.resolver.DependencyResolver;
+import io.github.slimjar.resolver.ResolutionResult;
+import io.github.slimjar.resolver.UnresolvedDependencyException;
+import io.github.slimjar.resolver.data.Dependency;
+import io.github.slimjar.util.FileLocks;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/**
+ * Handles everything around an artifact download (bom markers, local verification, resolution and cleanup)
+ * and leaves the actual transfer of bytes to the implementation.
+ */
+public abstract class AbstractDependencyDownloader implements DependencyDownloader {
+    private static final byte[] BOM_BYTES = "bom-file".getBytes();
+    private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
+    private final OutputWriterFactory outputWriterProducer;
+    private final DependencyResolver dependencyResolver;
+    private final DependencyVerifier verifier;
+
+    protected AbstractDependencyDownloader(final OutputWriterFactory outputWriterProducer, final DependencyResolver dependencyResolver, final DependencyVerifier verifier) {
+        this.outputWriterProducer = outputWriterProducer;
+        this.dependencyResolver = dependencyResolver;
+        this.verifier = verifier;
+    }
+
+    @Override
+    public final File download(final Dependency dependency) throws IOException, InterruptedException {
+        final File expectedOutputFile = outputWriterProducer.getStrategy().selectFileFor(dependency);
+        // Other processes sharing the download directory wait here and then find the finished file below.
+        return FileLocks.withLock(expectedOutputFile, () -> download(dependency, expectedOutputFile));
+    }
+
+    @SuppressWarnings("ResultOfMethodCallIgnored")
+    private File download(final Dependency dependency, final File expectedOutputFile) throws IOException, InterruptedException {
+
+        if (isAggregatorMarker(expectedOutputFile)) return null;
+
+        if (verifier.verify(expectedOutputFile, dependency)) return expectedOutputFile;
+
+        final ResolutionResult result = dependencyResolver.resolve(dependency)
+                .orElseThrow(() -> new UnresolvedDependencyException(dependency));
+
+        if (result.isAggregator()) {
+            expectedOutputFile.getParentFile().mkdirs();
+            expectedOutputFile.createNewFile();
+            Files.write(expectedOutputFile.toPath(), BOM_BYTES);
+            return null;
+        }
+
+        expectedOutputFile.delete();
+        final File checksumFile = verifier.getChecksumFile(dependency);
+        if (checksumFile != null) {
+            checksumFile.delete();
+        }
+
+        LOGGER.log("Downloading %s...", dependency.artifactId());
+
+        final URL url = result.getDependencyURL();
+        LOGGER.debug("Connecting to %s", url);
+
+        final File downloadResult = transfer(dependency, url, outputWriterProducer.create(dependency));
+        verifier.verify(downloadResult, dependency);
+        LOGGER.debug("Artifact %s downloaded successfully!", dependency.artifactId());
+
+        LOGGER.log("Downloaded %s successfully!", dependency.artifactId());
+        return downloadResult;
+    }
+
+    /**
+     * @return Whether <code>file</code> is the marker left behind for an aggregator instead of a jar
+     */
+    public static boolean isAggregatorMarker(final File file) throws IOException {
+        return file.exists()
+                && file.length() == BOM_BYTES.length
+                && Arrays.equals(Files.readAllBytes(file.toPath()), BOM_BYTES);
+    }
+
+    /**
+     * Transfers the artifact at <code>url</code> into the given writer.
+     * @return File produced by the writer
+     */
+    protected abstract File transfer(final Dependency dependency, final URL url, final OutputWriter outputWriter) throws IOException, InterruptedException;
+}
@@ -0,0 +1,50 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.downloader;
+
+import io.github.slimjar.downloader.output.DigestingOutputWriterFactory;
+import io.github.slimjar.downloader.output.OutputWriterFactory;
+import io.github.slimjar.downloader.verify.DependencyVerifier;
+import io.github.slimjar.downloader.verify.InlineChecksumCalculator;
+import io.github.slimjar.resolver.DependencyResolver;
+
+/**
+ * Makes the downloaders of the delegate factory compute checksums while writing,
+ * so verification of a fresh download does not need a second pass over the file.
+ */
+public final class DigestingDependencyDownloaderFactory implements DependencyDownloaderFactory {
+    private final DependencyDownloaderFactory delegate;
+    private final InlineChecksumCalculator checksumCalculator;
+
+    public DigestingDependencyDownloaderFactory(final DependencyDownloaderFactory delegate, final InlineChecksumCalculator checksumCalculator) {
+        this.delegate = delegate;
+        this.checksumCalculator = checksumCalculator;
+    }
+
+    @Override
+    public DependencyDownloader create(final OutputWriterFactory outputWriterFactory, final DependencyResolver resolver, final DependencyVerifier verifier) {
+        return delegate.create(new DigestingOutputWriterFactory(outputWriterFactory, checksumCalculator), resolver, verifier);
+    }
+}
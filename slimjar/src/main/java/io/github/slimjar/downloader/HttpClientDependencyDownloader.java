@@ -0,0 +1,420 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.downloader;
+
+import io.github.slimjar.downloader.output.OutputWriter;
+import io.github.slimjar.downloader.output.OutputWriterFactory;
+import io.github.slimjar.downloader.verify.DependencyVerifier;
+import io.github.slimjar.logging.LogDispatcher;
+import io.github.slimjar.logging.ProcessLogger;
+import io.github.slimjar.resolver.DependencyResolver;
+import io.github.slimjar.resolver.data.Dependency;
+import io.github.slimjar.util.Concurrency;
+import io.github.slimjar.util.Connections;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Downloads artifacts through {@link HttpClient}, reusing pooled HTTP/2 connections per repository host.
+ * The response body is streamed straight into the {@link OutputWriter} as it arrives.
+ * With a <code>chunkCount</code> above 1 the first request asks for an open ended range. If the repository honours it
+ * and the artifact has at least <code>chunkThreshold</code> bytes, the rest is fetched as parallel range requests
+ * and every range is written straight to its place in the output file.
+ * The request timeout only bounds the wait for the response headers, so every body is watched as well
+ * and fails once the server sends nothing for <code>readTimeout</code> while more data is expected.
+ */
+public final class HttpClientDependencyDownloader extends AbstractDependencyDownloader {
+    private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
+    private static final ScheduledThreadPoolExecutor WATCHDOG = createWatchdog();
+    private final HttpClientPool clientPool;
+    private final Duration readTimeout;
+    private final long chunkThreshold;
+    private final int chunkCount;
+
+    public HttpClientDependencyDownloader(final OutputWriterFactory outputWriterProducer, final DependencyResolver dependencyResolver, final DependencyVerifier verifier, final HttpClientPool clientPool, final Duration readTimeout) {
+        this(outputWriterProducer, dependencyResolver, verifier, clientPool, readTimeout, Long.MAX_VALUE, 1);
+    }
+
+    public HttpClientDependencyDownloader(final OutputWriterFactory outputWriterProducer, final DependencyResolver dependencyResolver, final DependencyVerifier verifier, final HttpClientPool clientPool, final Duration readTimeout, final long chunkThreshold, final int chunkCount) {
+        super(outputWriterProducer, dependencyResolver, verifier);
+        if (chunkCount < 1) {
+            throw new IllegalArgumentException("Chunk count must be at least 1, got " + chunkCount);
+        }
+        this.clientPool = clientPool;
+        this.readTimeout = readTimeout;
+        this.chunkThreshold = chunkThreshold;
+        this.chunkCount = chunkCount;
+    }
+
+    @Override
+    protected File transfer(final Dependency dependency, final URL url, final OutputWriter outputWriter) throws IOException, InterruptedException {
+        final URI uri = toURI(url);
+        final HttpClient client = clientPool.clientFor(uri);
+        final long resumeOffset = outputWriter.getResumeOffset();
+        // An open ended range from the start reveals both the length and range support, without a separate probe.
+        final boolean probe = chunkCount > 1 && resumeOffset == 0;
+        final HttpRequest request = probe ? createRangeRequest(uri, 0, -1) : createRequest(uri, resumeOffset, outputWriter.getResumeValidator());
+
+        try {
+            final HttpResponse<InputStream> response = client.sendAsync(request, watched(url, HttpResponse.BodyHandlers.ofInputStream()))
+                    .thenCompose(firstResponse -> {
+                        // A stale partial file the server can not resume from, or an empty artifact, start over.
+                        if ((resumeOffset > 0 || probe) && firstResponse.statusCode() == 416) {
+                            closeQuietly(firstResponse.body());
+                            return client.sendAsync(createRequest(uri, 0, null), watched(url, HttpResponse.BodyHandlers.ofInputStream()));
+                        }
+                        return CompletableFuture.completedFuture(firstResponse);
+                    })
+                    .get();
+            final long length = probe ? rangedLength(response) : -1;
+            if (length >= chunkThreshold) {
+                final File written = outputWriter.writeRanges(length, sink -> transferChunked(dependency, url, client, response, length, sink));
+                if (written != null) return written;
+            }
+            // Written on the calling thread, which holds the lock for the output file.
+            return write(dependency, url, response, outputWriter, resumeOffset);
+        } catch (final ExecutionException exception) {
+            throw unwrap(url, exception.getCause());
+        }
+    }
+
+    /**
+     * @return Total length of the artifact if the server answered the open ended range with a partial response, -1 otherwise
+     */
+    private static long rangedLength(final HttpResponse<?> response) {
+        if (response.statusCode() != 206) return -1;
+        final String contentRange = response.headers().firstValue("Content-Range").orElse("");
+        final int separator = contentRange.lastIndexOf('/');
+        try {
+            return separator < 0 ? -1 : Long.parseLong(contentRange.substring(separator + 1).trim());
+        } catch (final NumberFormatException exception) {
+            // "*" for an unknown length.
+            return -1;
+        }
+    }
+
+    // The first chunk is read from the probing response, which is closed right after, the others are requested in parallel.
+    // Every chunk is written straight to its place in the output file as it arrives.
+    private void transferChunked(final Dependency dependency, final URL url, final HttpClient client, final HttpResponse<InputStream> first, final long length, final OutputWriter.RangeSink sink) throws IOException, InterruptedException {
+        final URI uri = toURI(url);
+        final long chunkSize = (length + chunkCount - 1) / chunkCount;
+        final List<CompletableFuture<HttpResponse<Long>>> chunks = new ArrayList<>(chunkCount - 1);
+        try {
+            for (long start = chunkSize; start < length; start += chunkSize) {
+                final long chunkStart = start;
+                final long chunkLength = Math.min(chunkSize, length - start);
+                chunks.add(client.sendAsync(
+                    createRangeRequest(uri, chunkStart, chunkStart + chunkLength - 1),
+                    watched(url, responseInfo -> new RangeSubscriber(url, responseInfo.statusCode(), sink, chunkStart, chunkLength))
+                ));
+            }
+            LOGGER.debug("Downloading %s in %s chunks of %s bytes", dependency.artifactId(), chunks.size() + 1, chunkSize);
+            writeFirstChunk(url, first.body(), sink, Math.min(chunkSize, length));
+            CompletableFuture.allOf(chunks.toArray(new CompletableFuture<?>[0])).get();
+        } catch (final ExecutionException exception) {
+            throw unwrap(url, exception.getCause());
+        } finally {
+            chunks.forEach(chunk -> chunk.cancel(true));
+        }
+    }
+
+    private static void writeFirstChunk(final URL url, final InputStream body, final OutputWriter.RangeSink sink, final long length) throws IOException {
+        try (body) {
+            final byte[] buffer = new byte[64 * 1024];
+            long written = 0;
+            int read;
+            while (written < length && (read = body.read(buffer, 0, (int) Math.min(buffer.length, length - written))) > 0) {
+                sink.write(ByteBuffer.wrap(buffer, 0, read), written);
+                written += read;
+            }
+            if (written != length) {
+                throw new IOException("Range 0-" + (length - 1) + " of " + url + " ended after " + written + " bytes");
+            }
+        }
+    }
+
+    private HttpRequest createRequest(final URI uri, final long offset, final String validator) {
+        final HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                .timeout(readTimeout)
+                .header("User-Agent", Connections.USER_AGENT)
+                .GET();
+        if (offset > 0) {
+            builder.header("Range", "bytes=" + offset + "-");
+            // The whole content is sent instead if it changed since the partial file was written.
+            if (validator != null) {
+                builder.header("If-Range", validator);
+            }
+        }
+        return builder.build();
+    }
+
+    private static File write(final Dependency dependency, final URL url, final HttpResponse<InputStream> response, final OutputWriter outputWriter, final long resumeOffset) throws IOException {
+        try (final InputStream inputStream = response.body()) {
+            final boolean partial = response.statusCode() == 206;
+            if (response.statusCode() != 200 && !partial) {
+                throw new IOException("Could not download from " + url + " (HTTP " + response.statusCode() + ")");
+            }
+            final long offset = partial ? resumeOffset : 0;
+            final long length = response.headers().firstValueAsLong("Content-Length").orElse(-1);
+            final String validator = Connections.resumeValidator(response.headers().firstValue("ETag").orElse(null), response.headers().firstValue("Last-Modified").orElse(null));
+            LOGGER.debug("Connection successful! Downloading %s (%s, resuming at %s) over %s", dependency.artifactId(), length, offset, response.version());
+            return outputWriter.writeFrom(inputStream, length, offset, validator);
+        }
+    }
+
+    private HttpRequest createRangeRequest(final URI uri, final long start, final long end) {
+        return HttpRequest.newBuilder(uri)
+                .timeout(readTimeout)
+                .header("User-Agent", Connections.USER_AGENT)
+                .header("Range", "bytes=" + start + "-" + (end < 0 ? "" : end))
+                .GET()
+                .build();
+    }
+
+    private <T> HttpResponse.BodyHandler<T> watched(final URL url, final HttpResponse.BodyHandler<T> handler) {
+        return responseInfo -> new StallWatchingSubscriber<>(handler.apply(responseInfo), url, readTimeout);
+    }
+
+    private static ScheduledThreadPoolExecutor createWatchdog() {
+        final ScheduledThreadPoolExecutor watchdog = new ScheduledThreadPoolExecutor(1, new Concurrency.DaemonThreadFactory("slimjar-download-watchdog"));
+        // Almost every check is cancelled by the body completing, keep them from piling up in the queue.
+        watchdog.setRemoveOnCancelPolicy(true);
+        return watchdog;
+    }
+
+    private static void closeQuietly(final InputStream inputStream) {
+        try {
+            inputStream.close();
+        } catch (final IOException ignored) {
+            // Nothing left to read from it anyway.
+        }
+    }
+
+    private static IOException unwrap(final URL url, final Throwable throwable) {
+        Throwable cause = throwable;
+        while ((cause instanceof CompletionException || cause instanceof UncheckedIOException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof IOException ioException) return ioException;
+        return new IOException("Could not download from " + url, cause);
+    }
+
+    private static URI toURI(final URL url) throws IOException {
+        try {
+            return url.toURI();
+        } catch (final URISyntaxException exception) {
+            throw new IOException("Invalid artifact URL " + url, exception);
+        }
+    }
+
+    /**
+     * Writes a range response straight into the sink as its buffers arrive, so no thread blocks on reading it.
+     */
+    private static final class RangeSubscriber implements HttpResponse.BodySubscriber<Long> {
+        private final CompletableFuture<Long> body = new CompletableFuture<>();
+        private final URL url;
+        private final int statusCode;
+        private final OutputWriter.RangeSink sink;
+        private final long start;
+        private final long length;
+        private Flow.Subscription subscription;
+        private long written;
+
+        private RangeSubscriber(final URL url, final int statusCode, final OutputWriter.RangeSink sink, final long start, final long length) {
+            this.url = url;
+            this.statusCode = statusCode;
+            this.sink = sink;
+            this.start = start;
+            this.length = length;
+        }
+
+        @Override
+        public CompletionStage<Long> getBody() {
+            return body;
+        }
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (statusCode != 206) {
+                fail(new IOException("Server did not honour range request for " + url + " (HTTP " + statusCode + ")"));
+                return;
+            }
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(final List<ByteBuffer> buffers) {
+            if (body.isDone()) return;
+            try {
+                for (final ByteBuffer buffer : buffers) {
+                    final int remaining = buffer.remaining();
+                    if (written + remaining > length) {
+                        throw new IOException("Range " + start + "-" + (start + length - 1) + " of " + url + " is longer than requested");
+                    }
+                    sink.write(buffer, start + written);
+                    written += remaining;
+                }
+            } catch (final IOException exception) {
+                fail(exception);
+            }
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            body.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            if (written != length) {
+                body.completeExceptionally(new IOException("Range " + start + "-" + (start + length - 1) + " of " + url + " ended after " + written + " bytes"));
+            } else {
+                body.complete(written);
+            }
+        }
+
+        private void fail(final IOException exception) {
+            subscription.cancel();
+            body.completeExceptionally(exception);
+        }
+    }
+
+    /**
+     * Fails the wrapped body once data is demanded but none arrives for the read timeout, like a socket read timeout would.
+     * Time spent without demand does not count, a consumer that is busy writing or waiting for a lock is not a stalled server.
+     */
+    private static final class StallWatchingSubscriber<T> implements HttpResponse.BodySubscriber<T>, Flow.Subscription {
+        private final HttpResponse.BodySubscriber<T> delegate;
+        private final URL url;
+        private final long timeoutNanos;
+        private Flow.Subscription subscription;
+        private ScheduledFuture<?> check;
+        private long demand;
+        private long lastProgress;
+        private boolean done;
+
+        private StallWatchingSubscriber(final HttpResponse.BodySubscriber<T> delegate, final URL url, final Duration readTimeout) {
+            this.delegate = delegate;
+            this.url = url;
+            this.timeoutNanos = readTimeout.toNanos();
+        }
+
+        @Override
+        public CompletionStage<T> getBody() {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            synchronized (this) {
+                this.subscription = subscription;
+                lastProgress = System.nanoTime();
+                schedule(timeoutNanos);
+            }
+            delegate.onSubscribe(this);
+        }
+
+        @Override
+        public synchronized void onNext(final List<ByteBuffer> buffers) {
+            if (done) return;
+            if (demand != Long.MAX_VALUE) demand--;
+            lastProgress = System.nanoTime();
+            delegate.onNext(buffers);
+            // Writing the buffers may take a while and is no fault of the server.
+            lastProgress = System.nanoTime();
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            if (finish()) delegate.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            if (finish()) delegate.onComplete();
+        }
+
+        @Override
+        public void request(final long n) {
+            synchronized (this) {
+                if (demand == 0) lastProgress = System.nanoTime();
+                demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+            }
+            subscription.request(n);
+        }
+
+        @Override
+        public void cancel() {
+            finish();
+            subscription.cancel();
+        }
+
+        private synchronized boolean finish() {
+            if (done) return false;
+            done = true;
+            check.cancel(false);
+            return true;
+        }
+
+        private void schedule(final long delayNanos) {
+            check = WATCHDOG.schedule(this::checkProgress, delayNanos, TimeUnit.NANOSECONDS);
+        }
+
+        private synchronized void checkProgress() {
+            if (done) return;
+            final long idle = System.nanoTime() - lastProgress;
+            if (demand == 0 || idle < timeoutNanos) {
+                schedule(demand == 0 ? timeoutNanos : timeoutNanos - idle);
+                return;
+            }
+            done = true;
+            subscription.cancel();
+            delegate.onError(new HttpTimeoutException("No data received from " + url + " for " + timeoutNanos / 1_000_000 + "ms"));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.downloader;
+
+import io.github.slimjar.downloader.output.OutputWriterFactory;
+import io.github.slimjar.downloader.verify.DependencyVerifier;
+import io.github.slimjar.resolver.DependencyResolver;
+import io.github.slimjar.util.Concurrency;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+
+/**
+ * Produces {@link HttpClientDependencyDownloader}s that all share one connection pool,
+ * so connections stay open across injections of the same application.
+ */
+public final class HttpClientDependencyDownloaderFactory implements DependencyDownloaderFactory {
+    public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    public static final Duration DEFAULT_READ_TIMEOUT = Duration.ofSeconds(60);
+    public static final long DEFAULT_CHUNK_THRESHOLD = 8L * 1024 * 1024;
+    public static final int DEFAULT_CHUNK_COUNT = 4;
+    private final HttpClientPool clientPool;
+    private final Duration readTimeout;
+    private final long chunkThreshold;
+    private final int chunkCount;
+
+    public HttpClientDependencyDownloaderFactory() {
+        this(DEFAULT_CONNECT_TIMEOUT, DEFAULT_READ_TIMEOUT, Concurrency.defaultExecutor());
+    }
+
+    /**
+     * @param connectTimeout Maximum time to wait for a connection to a repository.
+     * @param readTimeout Maximum time to wait for the response headers of an artifact.
+     * @param executor Executor the clients dispatch their asynchronous work on.
+     */
+    public HttpClientDependencyDownloaderFactory(final Duration connectTimeout, final Duration readTimeout, final Executor executor) {
+        this(connectTimeout, readTimeout, executor, Long.MAX_VALUE, 1);
+    }
+
+    /**
+     * @param connectTimeout Maximum time to wait for a connection to a repository.
+     * @param readTimeout Maximum time to wait for the response headers of an artifact.
+     * @param executor Executor the clients dispatch their asynchronous work on.
+     * @param chunkThreshold Minimum artifact size in bytes for it to be downloaded in chunks, see {@link #DEFAULT_CHUNK_THRESHOLD}.
+     * @param chunkCount Number of parallel range requests per chunked artifact, 1 disables chunking, see {@link #DEFAULT_CHUNK_COUNT}.
+     */
+    public HttpClientDependencyDownloaderFactory(final Duration connectTimeout, final Duration readTimeout, final Executor executor, final long chunkThreshold, final int chunkCount) {
+        this.clientPool = new HttpClientPool(connectTimeout, executor);
+        this.readTimeout = readTimeout;
+        this.chunkThreshold = chunkThreshold;
+        this.chunkCount = chunkCount;
+    }
+
+    @Override
+    public DependencyDownloader create(final OutputWriterFactory outputWriterFactory, final DependencyResolver resolver, final DependencyVerifier verifier) {
+        return new HttpClientDependencyDownloader(outputWriterFactory, resolver, verifier, clientPool, readTimeout, chunkThreshold, chunkCount);
+    }
+}
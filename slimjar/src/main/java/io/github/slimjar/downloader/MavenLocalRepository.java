@@ -0,0 +1,98 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.downloader;
+
+import io.github.slimjar.downloader.strategy.FilePathStrategy;
+import io.github.slimjar.logging.LogDispatcher;
+import io.github.slimjar.logging.ProcessLogger;
+import io.github.slimjar.resolver.data.Dependency;
+import io.github.slimjar.util.FileLocks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Serves artifacts from a local Maven repository such as <code>~/.m2/repository</code> before any remote repository is asked.
+ * Artifacts are hard linked into the download directory, falling back to a symbolic link and finally a copy,
+ * so they neither cross the network nor take up disk space twice. A linked artifact is verified like any download,
+ * against the checksum the dependency resolved to, and is replaced by a download when it does not match.
+ * Snapshots are not taken from here, their local copies are rebuilt too often to be trusted.
+ */
+public final class MavenLocalRepository {
+    private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
+    private final FilePathStrategy artifactStrategy;
+
+    public MavenLocalRepository(final File rootDirectory) {
+        this.artifactStrategy = FilePathStrategy.createDefault(rootDirectory);
+    }
+
+    /**
+     * @return Local repository named by <code>maven.repo.local</code>, otherwise <code>~/.m2/repository</code>, null if it does not exist
+     */
+    public static MavenLocalRepository createDefault() {
+        final String configured = System.getProperty("maven.repo.local");
+        final Path root = configured != null ? Paths.get(configured) : Paths.get(System.getProperty("user.home"), ".m2", "repository");
+        return Files.isDirectory(root) ? new MavenLocalRepository(root.toFile()) : null;
+    }
+
+    /**
+     * Links the local copy of <code>dependency</code> to <code>target</code> if there is one. The copy is not verified here.
+     * @return <code>target</code>, or null if the local repository cannot provide the dependency
+     */
+    public File link(final Dependency dependency, final File target) throws IOException, InterruptedException {
+        if (dependency.snapshotId() != null || dependency.version().endsWith("-SNAPSHOT")) return null;
+        final File artifact = artifactStrategy.selectFileFor(dependency);
+        if (!artifact.isFile()) return null;
+        return FileLocks.withLock(target, () -> {
+            if (!target.exists()) {
+                Files.createDirectories(target.toPath().getParent());
+                Files.deleteIfExists(target.toPath());
+                place(artifact.toPath(), target.toPath());
+                LOGGER.log("Using %s from the local Maven repository", dependency.artifactId());
+            }
+            return target;
+        });
+    }
+    private static void place(final Path source, final Path target) throws IOException {
+        try {
+            Files.createLink(target, source);
+            return;
+        } catch (final IOException | UnsupportedOperationException exception) {
+            // Typically a different file system or device.
+            LOGGER.debug("Could not hard link %s: %s", source, exception.getMessage());
+        }
+        try {
+            Files.createSymbolicLink(target, source);
+            return;
+        } catch (final IOException | UnsupportedOperationException exception) {
+            // Typically Windows without the symbolic link privilege.
+            LOGGER.debug("Could not symlink %s: %s", source, exception.getMessage());
+        }
+        Files.copy(source, target);
+    }
+}
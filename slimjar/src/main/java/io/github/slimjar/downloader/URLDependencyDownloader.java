@@ -30,8 +30,6 @@ import io.github.slimjar.downloader.verify.DependencyVerifier;
 import io.github.slimjar.logging.LogDispatcher;
 import io.github.slimjar.logging.ProcessLogger;
 import io.github.slimjar.resolver.DependencyResolver;
-import io.github.slimjar.resolver.ResolutionResult;
-import io.github.slimjar.resolver.UnresolvedDependencyException;
 import io.github.slimjar.resolver.data.Dependency;
 import io.github.slimjar.util.Connections;
 
@@ -40,68 +38,38 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.net.URLConnection;
-import java.nio.file.Files;
-import java.util.Arrays;
 
-public final class URLDependencyDownloader implements DependencyDownloader {
-    private static final byte[] BOM_BYTES = "bom-file".getBytes();
+public final class URLDependencyDownloader extends AbstractDependencyDownloader {
     private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
-    private final OutputWriterFactory outputWriterProducer;
-    private final DependencyResolver dependencyResolver;
-    private final DependencyVerifier verifier;
 
     public URLDependencyDownloader(final OutputWriterFactory outputWriterProducer, DependencyResolver dependencyResolver, DependencyVerifier verifier) {
-        this.outputWriterProducer = outputWriterProducer;
-        this.dependencyResolver = dependencyResolver;
-        this.verifier = verifier;
+        super(outputWriterProducer, dependencyResolver, verifier);
     }
 
-    @SuppressWarnings("ResultOfMethodCallIgnored")
     @Override
-    public File download(final Dependency dependency) throws IOException, InterruptedException {
-        final File expectedOutputFile = outputWriterProducer.getStrategy().selectFileFor(dependency);
-
-        if (expectedOutputFile.exists() &&
-            expectedOutputFile.length() == BOM_BYTES.length &&
-            Arrays.equals(Files.readAllBytes(expectedOutputFile.toPath()), BOM_BYTES)
-        ) return null;
-
-        if (verifier.verify(expectedOutputFile, dependency)) return expectedOutputFile;
-
-        final ResolutionResult result = dependencyResolver.resolve(dependency)
-                .orElseThrow(() -> new UnresolvedDependencyException(dependency));
-
-        if (result.isAggregator()) {
-            expectedOutputFile.getParentFile().mkdirs();
-            expectedOutputFile.createNewFile();
-            Files.write(expectedOutputFile.toPath(), BOM_BYTES);
-            return null;
-        }
-
-        expectedOutputFile.delete();
-        final File checksumFile = verifier.getChecksumFile(dependency);
-        if (checksumFile != null) {
-            checksumFile.delete();
-        }
-
-        LOGGER.log("Downloading %s...", dependency.artifactId());
-
-        final URL url = result.getDependencyURL();
-        LOGGER.debug("Connecting to %s", url);
-
-        final URLConnection connection = Connections.createDownloadConnection(url);
+    protected File transfer(final Dependency dependency, final URL url, final OutputWriter outputWriter) throws IOException {
+        final long resumeOffset = outputWriter.getResumeOffset();
+        final URLConnection connection = openConnection(url, resumeOffset, outputWriter.getResumeValidator());
         final InputStream inputStream = connection.getInputStream();
+        final long offset = Connections.isPartial(connection) ? resumeOffset : 0;
+        final String validator = Connections.resumeValidator(connection.getHeaderField("ETag"), connection.getHeaderField("Last-Modified"));
         LOGGER.debug("Connection successful! Downloading %s" ,dependency.artifactId() + "...");
+        LOGGER.debug("%s.Size = %s (resuming at %s)", dependency.artifactId(), connection.getContentLengthLong(), offset);
 
-        final OutputWriter outputWriter = outputWriterProducer.create(dependency);
-        LOGGER.debug("%s.Size = %s", dependency.artifactId(), connection.getContentLength());
-
-        final File downloadResult = outputWriter.writeFrom(inputStream, connection.getContentLength());
+        final File downloadResult = outputWriter.writeFrom(inputStream, connection.getContentLengthLong(), offset, validator);
         Connections.tryDisconnect(connection);
-        verifier.verify(downloadResult, dependency);
-        LOGGER.debug("Artifact %s downloaded successfully!", dependency.artifactId());
-
-        LOGGER.log("Downloaded %s successfully!", dependency.artifactId());
         return downloadResult;
     }
+
+    private static URLConnection openConnection(final URL url, final long resumeOffset, final String validator) throws IOException {
+        if (resumeOffset > 0) {
+            try {
+                return Connections.createDownloadConnection(url, resumeOffset, validator);
+            } catch (final IOException exception) {
+                // e.g. 416 for a stale partial file, start over instead.
+                LOGGER.debug("Could not resume %s at %s, downloading from the start", url, resumeOffset);
+            }
+        }
+        return Connections.createDownloadConnection(url);
+    }
 }
@@ -25,29 +25,149 @@
 package io.github.slimjar.downloader.output;
 
 
+import io.github.slimjar.util.FileLocks;
+
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+/**
+ * Writes into a <code>.part</code> sibling of the output file and atomically moves it into place once complete,
+ * so an interrupted write never leaves a truncated file behind. A stream that ends before its announced length fails the write.
+ * The partial file is kept for resuming, but only offered for it when the validator of its content is known.
+ */
 public final class ChanneledFileOutputWriter implements OutputWriter {
     private static final Logger LOGGER = Logger.getLogger(ChanneledFileOutputWriter.class.getName());
+    private static final String PART_SUFFIX = ".part";
+    private static final String VALIDATOR_SUFFIX = ".validator";
     private final File outputFile;
+    private final File partFile;
+    private final File validatorFile;
 
     public ChanneledFileOutputWriter(final File outputFile) {
         this.outputFile = outputFile;
+        this.partFile = new File(outputFile.getPath() + PART_SUFFIX);
+        this.validatorFile = new File(partFile.getPath() + VALIDATOR_SUFFIX);
     }
 
     @Override
     public File writeFrom(final InputStream inputStream, final long length) throws IOException {
+        return writeFrom(inputStream, length, 0);
+    }
+
+    @Override
+    public long getResumeOffset() {
+        return outputFile.exists() || !validatorFile.exists() ? 0 : partFile.length();
+    }
+
+    @Override
+    public String getResumeValidator() {
+        if (outputFile.exists() || !validatorFile.exists()) return null;
+        try {
+            return new String(Files.readAllBytes(validatorFile.toPath()), StandardCharsets.US_ASCII);
+        } catch (final IOException exception) {
+            return null;
+        }
+    }
+
+    @Override
+    public File writeFrom(final InputStream inputStream, final long length, final long offset) throws IOException {
+        return writeFrom(inputStream, length, offset, null);
+    }
+
+    @Override
+    public File writeFrom(final InputStream inputStream, final long length, final long offset, final String validator) throws IOException {
         LOGGER.log(Level.FINE, "Attempting to write from inputStream...");
-        if (!outputFile.exists()) {
-            LOGGER.log(Level.FINE, "Writing {0} bytes...", length == -1 ? "unknown" : length);
-            Files.copy(inputStream, outputFile.toPath());
+        try (inputStream) {
+            return FileLocks.withLock(outputFile, () -> write(inputStream, length, offset, validator));
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to write " + outputFile);
         }
-        inputStream.close();
+    }
+
+    @Override
+    public File writeRanges(final long length, final RangeTransfer transfer) throws IOException, InterruptedException {
+        return FileLocks.withLock(outputFile, () -> writeRangesLocked(length, transfer));
+    }
+
+    private File writeRangesLocked(final long length, final RangeTransfer transfer) throws IOException, InterruptedException {
+        if (outputFile.exists()) {
+            return outputFile;
+        }
+        // Ranges are not resumed individually, so a failed ranged write leaves nothing behind to resume from.
+        Files.deleteIfExists(validatorFile.toPath());
+        try (final FileChannel channel = FileChannel.open(partFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            // Sized up front, so concurrent positional writes never have to grow the file.
+            if (length > 0) {
+                channel.write(ByteBuffer.allocate(1), length - 1);
+            }
+            transfer.transfer((buffer, position) -> {
+                long written = position;
+                while (buffer.hasRemaining()) {
+                    written += channel.write(buffer, written);
+                }
+            });
+            channel.force(false);
+        } catch (final IOException | InterruptedException | RuntimeException exception) {
+            Files.deleteIfExists(partFile.toPath());
+            throw exception;
+        }
+        moveIntoPlace(partFile.toPath(), outputFile.toPath());
         return outputFile;
     }
+
+    private File write(final InputStream inputStream, final long length, final long offset, final String validator) throws IOException {
+        if (outputFile.exists()) {
+            return outputFile;
+        }
+        LOGGER.log(Level.FINE, "Writing {0} bytes from offset {1}...", new Object[]{length == -1 ? "unknown" : length, offset});
+        // Recorded before any content, a partial file is only ever resumed against the content it was written from.
+        if (validator != null) {
+            Files.write(validatorFile.toPath(), validator.getBytes(StandardCharsets.US_ASCII));
+        } else {
+            Files.deleteIfExists(validatorFile.toPath());
+        }
+        final long position;
+        try (final FileChannel channel = FileChannel.open(partFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             final ReadableByteChannel source = Channels.newChannel(inputStream)) {
+            channel.truncate(offset);
+            long written = offset;
+            long transferred;
+            while ((transferred = channel.transferFrom(source, written, 1 << 20)) > 0) {
+                written += transferred;
+            }
+            channel.force(false);
+            position = written;
+        }
+        if (length != -1 && position != offset + length) {
+            // A short file is kept to be resumed, one longer than announced can not be trusted at all.
+            if (position > offset + length) {
+                Files.deleteIfExists(partFile.toPath());
+                Files.deleteIfExists(validatorFile.toPath());
+            }
+            throw new IOException("Expected " + (offset + length) + " bytes for " + outputFile + " but received " + position);
+        }
+        moveIntoPlace(partFile.toPath(), outputFile.toPath());
+        Files.deleteIfExists(validatorFile.toPath());
+        return outputFile;
+    }
+
+    private static void moveIntoPlace(final Path source, final Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (final AtomicMoveNotSupportedException exception) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
 }
@@ -0,0 +1,129 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.downloader.output;
+
+import io.github.slimjar.downloader.strategy.FilePathStrategy;
+import io.github.slimjar.downloader.verify.InlineChecksumCalculator;
+import io.github.slimjar.resolver.data.Dependency;
+import io.github.slimjar.util.Checksums;
+import io.github.slimjar.util.FileLocks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Digests bytes while they stream through the delegate writer and records the result with the {@link InlineChecksumCalculator}.
+ */
+public final class DigestingOutputWriterFactory implements OutputWriterFactory {
+    private final OutputWriterFactory delegate;
+    private final InlineChecksumCalculator checksumCalculator;
+
+    public DigestingOutputWriterFactory(final OutputWriterFactory delegate, final InlineChecksumCalculator checksumCalculator) {
+        this.delegate = delegate;
+        this.checksumCalculator = checksumCalculator;
+    }
+
+    @Override
+    public OutputWriter create(final Dependency dependency) {
+        return new DigestingOutputWriter(delegate.create(dependency), getStrategy().selectFileFor(dependency));
+    }
+
+    @Override
+    public FilePathStrategy getStrategy() {
+        return delegate.getStrategy();
+    }
+
+    private MessageDigest createDigest() throws IOException {
+        try {
+            return MessageDigest.getInstance(checksumCalculator.getAlgorithm());
+        } catch (final NoSuchAlgorithmException exception) {
+            throw new IOException(exception);
+        }
+    }
+
+    private final class DigestingOutputWriter implements OutputWriter {
+        private final OutputWriter outputWriter;
+        private final File expectedFile;
+
+        private DigestingOutputWriter(final OutputWriter outputWriter, final File expectedFile) {
+            this.outputWriter = outputWriter;
+            this.expectedFile = expectedFile;
+        }
+
+        @Override
+        public File writeFrom(final InputStream inputStream, final long length) throws IOException {
+            return writeFrom(inputStream, length, 0);
+        }
+
+        @Override
+        public long getResumeOffset() {
+            return outputWriter.getResumeOffset();
+        }
+
+        @Override
+        public String getResumeValidator() {
+            return outputWriter.getResumeValidator();
+        }
+
+        @Override
+        public File writeFrom(final InputStream inputStream, final long length, final long offset) throws IOException {
+            return writeFrom(inputStream, length, offset, null);
+        }
+
+        // Ranges do not arrive in order, the verifier digests the finished file instead.
+        @Override
+        public File writeRanges(final long length, final RangeTransfer transfer) throws IOException, InterruptedException {
+            return outputWriter.writeRanges(length, transfer);
+        }
+
+        @Override
+        public File writeFrom(final InputStream inputStream, final long length, final long offset, final String validator) throws IOException {
+            // Checked under the same lock the delegate writes under, so another process can not finish or replace the file in between.
+            try (inputStream) {
+                return FileLocks.withLock(expectedFile, () -> writeLocked(inputStream, length, offset, validator));
+            } catch (final InterruptedException exception) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting to write " + expectedFile);
+            }
+        }
+
+        private File writeLocked(final InputStream inputStream, final long length, final long offset, final String validator) throws IOException {
+            // Writers leave existing files untouched and resumed writes only stream the remainder,
+            // in both cases the stream does not reflect the whole file content.
+            if (offset != 0 || expectedFile.exists()) {
+                return outputWriter.writeFrom(inputStream, length, offset, validator);
+            }
+            final DigestInputStream digestStream = new DigestInputStream(inputStream, createDigest());
+            final File result = outputWriter.writeFrom(digestStream, length, 0, validator);
+            checksumCalculator.record(result, Checksums.toHex(digestStream.getMessageDigest().digest()));
+            return result;
+        }
+    }
+}
@@ -27,7 +27,65 @@ package io.github.slimjar.downloader.output;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 
 public interface OutputWriter {
     File writeFrom(final InputStream inputStream, final long length) throws IOException;
+
+    /**
+     * @return Number of bytes already present from an earlier, interrupted write. Downloads may request only the remainder.
+     */
+    default long getResumeOffset() {
+        return 0;
+    }
+
+    /**
+     * @return Validator (an ETag or Last-Modified date) of the content the partial file was written from, null if unknown.
+     *         Downloads send it as <code>If-Range</code> so a changed remote file is sent whole instead of appended to a stale prefix.
+     */
+    default String getResumeValidator() {
+        return null;
+    }
+
+    /**
+     * Writes the remainder of a partially written file.
+     * @param inputStream Stream of the content starting at <code>offset</code>
+     * @param length Length of the remaining content, -1 if unknown
+     * @param offset Offset previously reported by {@link #getResumeOffset()}, 0 to start from scratch
+     */
+    default File writeFrom(final InputStream inputStream, final long length, final long offset) throws IOException {
+        if (offset != 0) {
+            throw new IOException("Resuming writes is not supported by " + getClass().getName());
+        }
+        return writeFrom(inputStream, length);
+    }
+
+    /**
+     * @param validator Validator of the content, kept with the partial file for {@link #getResumeValidator()}, may be null
+     */
+    default File writeFrom(final InputStream inputStream, final long length, final long offset, final String validator) throws IOException {
+        return writeFrom(inputStream, length, offset);
+    }
+
+    /**
+     * Writes content of a known length from ranges that may arrive concurrently and in any order, each straight to its place in the file.
+     * @param transfer Writes every range of the content to the sink it is given
+     * @return Written file, null without calling <code>transfer</code> if this writer can only write sequentially
+     */
+    default File writeRanges(final long length, final RangeTransfer transfer) throws IOException, InterruptedException {
+        return null;
+    }
+
+    @FunctionalInterface
+    interface RangeSink {
+        /**
+         * Writes the remaining bytes of <code>buffer</code> at <code>position</code>, may be called from several threads at once.
+         */
+        void write(final ByteBuffer buffer, final long position) throws IOException;
+    }
+
+    @FunctionalInterface
+    interface RangeTransfer {
+        void transfer(final RangeSink sink) throws IOException, InterruptedException;
+    }
 }
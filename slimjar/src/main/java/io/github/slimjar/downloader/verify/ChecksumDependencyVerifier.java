@@ -33,11 +33,13 @@ import io.github.slimjar.resolver.ResolutionResult;
 import io.github.slimjar.resolver.data.Dependency;
 import io.github.slimjar.util.Connections;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.Objects;
 import java.util.Optional;
@@ -48,12 +50,21 @@ public final class ChecksumDependencyVerifier implements DependencyVerifier {
     private final OutputWriterFactory outputWriterFactory;
     private final DependencyVerifier fallbackVerifier;
     private final ChecksumCalculator checksumCalculator;
+    private final boolean offline;
 
     public ChecksumDependencyVerifier(final DependencyResolver resolver, final OutputWriterFactory outputWriterFactory, final DependencyVerifier fallbackVerifier, final ChecksumCalculator checksumCalculator) {
+        this(resolver, outputWriterFactory, fallbackVerifier, checksumCalculator, false);
+    }
+
+    /**
+     * @param offline Never download checksums, only use the ones already on disk or embedded in the resolution
+     */
+    public ChecksumDependencyVerifier(final DependencyResolver resolver, final OutputWriterFactory outputWriterFactory, final DependencyVerifier fallbackVerifier, final ChecksumCalculator checksumCalculator, final boolean offline) {
         this.resolver = resolver;
         this.outputWriterFactory = outputWriterFactory;
         this.fallbackVerifier = fallbackVerifier;
         this.checksumCalculator = checksumCalculator;
+        this.offline = offline;
     }
 
 
@@ -88,11 +99,27 @@ public final class ChecksumDependencyVerifier implements DependencyVerifier {
         return checksumFile;
     }
 
+    @Override
+    public void prepare(final Dependency dependency) throws IOException {
+        final File checksumFile = getChecksumFile(dependency);
+        if (!checksumFile.exists()) {
+            prepareChecksumFile(checksumFile, dependency);
+        }
+    }
+
     @SuppressWarnings("ResultOfMethodCallIgnored")
     private boolean prepareChecksumFile(final File checksumFile, final Dependency dependency) throws IOException {
         final Optional<ResolutionResult> result = resolver.resolve(dependency);
 
-        if (result.isEmpty()) return false;
+        if (result.isEmpty() || result.get().isAggregator()) return false;
+
+        final String inlineChecksum = result.get().getChecksum();
+        if (inlineChecksum != null) {
+            final byte[] checksumBytes = inlineChecksum.getBytes(StandardCharsets.US_ASCII);
+            outputWriterFactory.create(dependency).writeFrom(new ByteArrayInputStream(checksumBytes), checksumBytes.length);
+            LOGGER.debug("Using pre-resolved checksum for %s", dependency.artifactId());
+            return true;
+        }
 
         final URL checkSumUrl = result.get().getChecksumURL();
         LOGGER.log("Resolved checksum URL for %s as %s", dependency.artifactId(), checkSumUrl);
@@ -100,6 +127,8 @@ public final class ChecksumDependencyVerifier implements DependencyVerifier {
             checksumFile.createNewFile();
             return true;
         }
+        // Not recorded as an empty checksum file, a later online start should still fetch it.
+        if (offline) return false;
         final URLConnection connection = Connections.createDownloadConnection(checkSumUrl);
         final InputStream inputStream = connection.getInputStream();
         final OutputWriter outputWriter = outputWriterFactory.create(dependency);
@@ -35,16 +35,22 @@ public final class ChecksumDependencyVerifierFactory implements DependencyVerifi
     private final OutputWriterFactory outputWriterFactory;
     private final DependencyVerifierFactory fallbackVerifierFactory;
     private final ChecksumCalculator checksumCalculator;
+    private final boolean offline;
 
     public ChecksumDependencyVerifierFactory(final OutputWriterFactory outputWriterFactory, final DependencyVerifierFactory fallbackVerifierFactory, final ChecksumCalculator checksumCalculator) {
+        this(outputWriterFactory, fallbackVerifierFactory, checksumCalculator, false);
+    }
+
+    public ChecksumDependencyVerifierFactory(final OutputWriterFactory outputWriterFactory, final DependencyVerifierFactory fallbackVerifierFactory, final ChecksumCalculator checksumCalculator, final boolean offline) {
         this.outputWriterFactory = outputWriterFactory;
         this.fallbackVerifierFactory = fallbackVerifierFactory;
         this.checksumCalculator = checksumCalculator;
+        this.offline = offline;
     }
 
     @Override
     public DependencyVerifier create(final DependencyResolver resolver) {
         LOGGER.log(Level.FINEST, "Creating verifier...");
-        return new ChecksumDependencyVerifier(resolver, outputWriterFactory, fallbackVerifierFactory.create(resolver), checksumCalculator);
+        return new ChecksumDependencyVerifier(resolver, outputWriterFactory, fallbackVerifierFactory.create(resolver), checksumCalculator, offline);
     }
 }
@@ -32,4 +32,10 @@ import java.io.IOException;
 public interface DependencyVerifier {
     boolean verify(final File file, final Dependency dependency) throws IOException, InterruptedException;
     File getChecksumFile(final  Dependency dependency);
+
+    /**
+     * Fetches whatever verification needs ahead of time, allowing it to happen while the dependency itself is downloading.
+     */
+    default void prepare(final Dependency dependency) throws IOException, InterruptedException {
+    }
 }
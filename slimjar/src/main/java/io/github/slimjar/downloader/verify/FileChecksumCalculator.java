@@ -24,55 +24,74 @@
 
 package io.github.slimjar.downloader.verify;
 
+import io.github.slimjar.util.Checksums;
+
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+/**
+ * Hashes files with a fresh {@link MessageDigest} per call, so any number of threads can hash concurrently.
+ * Reads go through a {@link FileChannel} into pooled direct buffers to avoid copying through the Java heap.
+ */
 public final class FileChecksumCalculator implements ChecksumCalculator {
     private static final String DIRECTORY_HASH = "DIRECTORY";
+    private static final int BUFFER_SIZE = 64 * 1024;
     private static final Logger LOGGER = Logger.getLogger(FileChecksumCalculator.class.getName());
-    private final MessageDigest digest;
-    private final ReentrantReadWriteLock lock;
+    // Pooled rather than thread local, virtual threads would otherwise each hold on to their own direct buffer.
+    private static final Queue<ByteBuffer> BUFFERS = new ConcurrentLinkedQueue<>();
+    private final String algorithm;
 
     public FileChecksumCalculator(final String algorithm) throws NoSuchAlgorithmException {
-        digest = MessageDigest.getInstance(algorithm);
-        lock = new ReentrantReadWriteLock(false);
+        // Fail early for unsupported algorithms instead of on the first file.
+        MessageDigest.getInstance(algorithm);
+        this.algorithm = algorithm;
     }
 
     @Override
-    public String calculate(final File file) throws IOException, InterruptedException {
+    public String calculate(final File file) throws IOException {
         LOGGER.log(Level.FINEST, "Calculating hash for {0}", file.getPath());
         // This helps run IDE environment as a special case
         if (file.isDirectory()) {
             return DIRECTORY_HASH;
         }
 
-        lock.writeLock().tryLock(10, TimeUnit.SECONDS);
-        digest.reset();
-        try (final FileInputStream fis = new FileInputStream(file)) {
-            byte[] byteArray = new byte[1024];
-            int bytesCount;
-            while ((bytesCount = fis.read(byteArray)) != -1) {
-                digest.update(byteArray, 0, bytesCount);
+        final MessageDigest digest = createDigest();
+        final ByteBuffer buffer = acquireBuffer();
+        try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
             }
+        } finally {
+            buffer.clear();
+            BUFFERS.offer(buffer);
         }
-        byte[] bytes = digest.digest();
-        lock.writeLock().unlock();
 
-        StringBuilder sb = new StringBuilder();
-        for (byte b : bytes) {
-            sb.append(Integer.toString((b & 0xff) + 0x100, 16).substring(1));
-        }
-        sb.trimToSize();
-        final String result = sb.toString();
+        final String result = Checksums.toHex(digest.digest());
         LOGGER.log(Level.FINEST, "Hash for {0} -> {1}", new Object[]{file.getPath(), result});
         return result;
     }
+
+    private MessageDigest createDigest() throws IOException {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (final NoSuchAlgorithmException exception) {
+            throw new IOException(exception);
+        }
+    }
+
+    private static ByteBuffer acquireBuffer() {
+        final ByteBuffer buffer = BUFFERS.poll();
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
 }
@@ -0,0 +1,59 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.downloader.verify;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Skips hashing files whose size and modification time match the {@link VerificationIndex},
+ * optionally forcing a full re-hash once an entry is older than <code>fullVerificationInterval</code>.
+ */
+public final class IndexedChecksumCalculator implements ChecksumCalculator {
+    private final ChecksumCalculator delegate;
+    private final VerificationIndex index;
+    private final Duration fullVerificationInterval;
+
+    public IndexedChecksumCalculator(final ChecksumCalculator delegate, final VerificationIndex index, final Duration fullVerificationInterval) {
+        this.delegate = delegate;
+        this.index = index;
+        this.fullVerificationInterval = fullVerificationInterval;
+    }
+
+    @Override
+    public String calculate(final File file) throws IOException, InterruptedException {
+        if (file.isDirectory()) {
+            return delegate.calculate(file);
+        }
+        final String indexed = index.lookup(file, fullVerificationInterval);
+        if (indexed != null) {
+            return indexed;
+        }
+        final String checksum = delegate.calculate(file);
+        index.record(file, checksum);
+        return checksum;
+    }
+}
@@ -0,0 +1,65 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.downloader.verify;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serves checksums that were computed while the file was being written, so a freshly downloaded file
+ * does not have to be read back from disk. Anything without a (still valid) recorded checksum is handed to the fallback.
+ */
+public final class InlineChecksumCalculator implements ChecksumCalculator {
+    private final String algorithm;
+    private final ChecksumCalculator fallback;
+    private final Map<String, RecordedChecksum> recorded = new ConcurrentHashMap<>();
+
+    public InlineChecksumCalculator(final String algorithm, final ChecksumCalculator fallback) {
+        this.algorithm = algorithm;
+        this.fallback = fallback;
+    }
+
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    public void record(final File file, final String checksum) {
+        recorded.put(file.getAbsolutePath(), new RecordedChecksum(checksum, file.length(), file.lastModified()));
+    }
+
+    @Override
+    public String calculate(final File file) throws IOException, InterruptedException {
+        final RecordedChecksum checksum = recorded.remove(file.getAbsolutePath());
+        if (checksum != null && checksum.length() == file.length() && checksum.lastModified() == file.lastModified()) {
+            return checksum.value();
+        }
+        return fallback.calculate(file);
+    }
+
+    private record RecordedChecksum(String value, long length, long lastModified) {
+    }
+}
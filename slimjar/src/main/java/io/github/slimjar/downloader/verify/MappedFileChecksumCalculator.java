@@ -0,0 +1,90 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.downloader.verify;
+
+import io.github.slimjar.util.Checksums;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+
+/**
+ * Hashes large files by mapping them into memory in fixed size windows, which avoids copying every byte through a read buffer.
+ * Files below <code>mappingThreshold</code> are cheaper to read than to map and go through {@link FileChecksumCalculator} instead.
+ */
+public final class MappedFileChecksumCalculator implements ChecksumCalculator {
+    public static final long DEFAULT_MAPPING_THRESHOLD = 4L * 1024 * 1024;
+    public static final long DEFAULT_WINDOW_SIZE = 64L * 1024 * 1024;
+    // Windows keeps mapped files locked until the mapping is garbage collected, which would block deleting a corrupt jar.
+    private static final boolean MAPPING_SUPPORTED = !System.getProperty("os.name", "").toLowerCase(Locale.ROOT).startsWith("windows");
+    private final String algorithm;
+    private final long mappingThreshold;
+    private final long windowSize;
+    private final ChecksumCalculator bufferedCalculator;
+
+    public MappedFileChecksumCalculator(final String algorithm) throws NoSuchAlgorithmException {
+        this(algorithm, DEFAULT_MAPPING_THRESHOLD, DEFAULT_WINDOW_SIZE);
+    }
+
+    public MappedFileChecksumCalculator(final String algorithm, final long mappingThreshold, final long windowSize) throws NoSuchAlgorithmException {
+        if (windowSize < 1 || windowSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Window size must be between 1 and " + Integer.MAX_VALUE + ", got " + windowSize);
+        }
+        this.algorithm = algorithm;
+        this.mappingThreshold = mappingThreshold;
+        this.windowSize = windowSize;
+        this.bufferedCalculator = new FileChecksumCalculator(algorithm);
+    }
+
+    @Override
+    public String calculate(final File file) throws IOException, InterruptedException {
+        if (!MAPPING_SUPPORTED || file.isDirectory() || file.length() < mappingThreshold) {
+            return bufferedCalculator.calculate(file);
+        }
+
+        final MessageDigest digest = createDigest();
+        try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final long size = channel.size();
+            for (long position = 0; position < size; position += windowSize) {
+                final MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(windowSize, size - position));
+                digest.update(window);
+            }
+        }
+        return Checksums.toHex(digest.digest());
+    }
+
+    private MessageDigest createDigest() throws IOException {
+        try {
+            return MessageDigest.getInstance(algorithm);
+        } catch (final NoSuchAlgorithmException exception) {
+            throw new IOException(exception);
+        }
+    }
+}
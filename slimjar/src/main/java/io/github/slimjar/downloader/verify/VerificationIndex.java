@@ -0,0 +1,137 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.downloader.verify;
+
+import io.github.slimjar.logging.LogDispatcher;
+import io.github.slimjar.logging.ProcessLogger;
+import io.github.slimjar.util.FileLocks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent record of digests computed for files in the download directory, keyed on path, size and modification time.
+ * Stored as an append-only, tab separated text file where later lines win. It is compacted when loaded.
+ */
+public final class VerificationIndex {
+    private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
+    private static final String SEPARATOR = "\t";
+    private static final int COMPACTION_SLACK = 128;
+    private final Path indexFile;
+    private final Map<String, Entry> entries;
+
+    private VerificationIndex(final Path indexFile, final Map<String, Entry> entries) {
+        this.indexFile = indexFile;
+        this.entries = entries;
+    }
+
+    public static VerificationIndex load(final Path indexFile) throws IOException, InterruptedException {
+        final Map<String, Entry> entries = new ConcurrentHashMap<>();
+        if (!Files.exists(indexFile)) {
+            return new VerificationIndex(indexFile, entries);
+        }
+        return FileLocks.withLock(indexFile.toFile(), () -> {
+            final List<String> lines = Files.readAllLines(indexFile, StandardCharsets.UTF_8);
+            for (final String line : lines) {
+                final Entry entry = Entry.parse(line);
+                if (entry != null) {
+                    entries.put(entry.path(), entry);
+                }
+            }
+            entries.values().removeIf(entry -> !new File(entry.path()).exists());
+            if (lines.size() > entries.size() * 2 + COMPACTION_SLACK) {
+                compact(indexFile, entries);
+            }
+            return new VerificationIndex(indexFile, entries);
+        });
+    }
+
+    /**
+     * @param maxAge Maximum time since the digest was last computed, null to trust it indefinitely
+     * @return Digest recorded for <code>file</code> if its size and modification time are unchanged, otherwise null
+     */
+    public String lookup(final File file, final Duration maxAge) {
+        final Entry entry = entries.get(file.getAbsolutePath());
+        if (entry == null || entry.size() != file.length() || entry.lastModified() != file.lastModified()) {
+            return null;
+        }
+        if (maxAge != null && System.currentTimeMillis() - entry.verifiedAt() > maxAge.toMillis()) {
+            return null;
+        }
+        return entry.digest();
+    }
+
+    public void record(final File file, final String digest) {
+        final Entry entry = new Entry(file.getAbsolutePath(), file.length(), file.lastModified(), digest, System.currentTimeMillis());
+        entries.put(entry.path(), entry);
+        try {
+            Files.createDirectories(indexFile.getParent());
+            // A single small append per entry, concurrent writers at worst interleave whole lines.
+            Files.write(indexFile, (entry.format() + System.lineSeparator()).getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (final IOException exception) {
+            LOGGER.debug("Could not persist verification index entry for %s: %s", file.getName(), exception.getMessage());
+        }
+    }
+
+    private static void compact(final Path indexFile, final Map<String, Entry> entries) throws IOException {
+        final Path temporary = indexFile.resolveSibling(indexFile.getFileName() + ".tmp");
+        final StringBuilder content = new StringBuilder();
+        for (final Entry entry : entries.values()) {
+            content.append(entry.format()).append(System.lineSeparator());
+        }
+        Files.write(temporary, content.toString().getBytes(StandardCharsets.UTF_8));
+        try {
+            Files.move(temporary, indexFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (final AtomicMoveNotSupportedException exception) {
+            Files.move(temporary, indexFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private record Entry(String path, long size, long lastModified, String digest, long verifiedAt) {
+        private String format() {
+            return String.join(SEPARATOR, path, Long.toString(size), Long.toString(lastModified), digest, Long.toString(verifiedAt));
+        }
+
+        private static Entry parse(final String line) {
+            final String[] parts = line.split(SEPARATOR);
+            if (parts.length != 5) return null;
+            try {
+                return new Entry(parts[0], Long.parseLong(parts[1]), Long.parseLong(parts[2]), parts[3], Long.parseLong(parts[4]));
+            } catch (final NumberFormatException exception) {
+                return null;
+            }
+        }
+    }
+}
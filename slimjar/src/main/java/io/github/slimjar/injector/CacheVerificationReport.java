@@ -0,0 +1,94 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.injector;
+
+import io.github.slimjar.injector.helper.InjectionHelper.CacheStatus;
+import io.github.slimjar.resolver.data.Dependency;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Outcome of verifying the download directory ahead of injection.
+ */
+public final class CacheVerificationReport {
+    private final Map<Dependency, CacheStatus> statuses;
+
+    public CacheVerificationReport(final Map<Dependency, CacheStatus> statuses) {
+        this.statuses = Collections.unmodifiableMap(statuses);
+    }
+
+    public Map<Dependency, CacheStatus> getStatuses() {
+        return statuses;
+    }
+
+    public Set<Dependency> getVerified() {
+        return withStatus(CacheStatus.VERIFIED);
+    }
+
+    /**
+     * @return Dependencies that were cached but failed verification, their files have been removed.
+     */
+    public Set<Dependency> getStale() {
+        return withStatus(CacheStatus.STALE);
+    }
+
+    public Set<Dependency> getMissing() {
+        return withStatus(CacheStatus.MISSING);
+    }
+
+    public Set<Dependency> getAggregators() {
+        return withStatus(CacheStatus.AGGREGATOR);
+    }
+
+    /**
+     * @return Every dependency the pipeline still has to download, stale or missing.
+     */
+    public Set<Dependency> getRefetchRequired() {
+        return statuses.entrySet().stream()
+                .filter(entry -> entry.getValue() == CacheStatus.STALE || entry.getValue() == CacheStatus.MISSING)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    private Set<Dependency> withStatus(final CacheStatus status) {
+        return statuses.entrySet().stream()
+                .filter(entry -> entry.getValue() == status)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    @Override
+    public String toString() {
+        return "CacheVerificationReport{" +
+                "verified=" + getVerified().size() +
+                ", stale=" + getStale() +
+                ", missing=" + getMissing() +
+                '}';
+    }
+}
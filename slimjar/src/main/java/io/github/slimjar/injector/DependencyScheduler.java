@@ -0,0 +1,220 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.injector;
+
+import io.github.slimjar.injector.helper.InjectionHelper;
+import io.github.slimjar.injector.helper.InjectionHelper.CacheStatus;
+import io.github.slimjar.injector.loader.Injectable;
+import io.github.slimjar.logging.LogDispatcher;
+import io.github.slimjar.logging.ProcessLogger;
+import io.github.slimjar.resolver.data.Dependency;
+import io.github.slimjar.util.BoundedExecutor;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URISyntaxException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * Flattens a dependency tree into a de-duplicated graph and pushes every node through the
+ * resolve, download, verify and relocate stages, each running on its own executor.
+ * While one jar is being relocated the next ones are already downloading, so the total time tends toward the slowest stage.
+ * Injection still happens on the calling thread, walking the tree depth-first in declaration order,
+ * so the resulting classpath order is identical from run to run regardless of which download finishes first.
+ */
+public final class DependencyScheduler {
+    private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
+    private final InjectionHelper injectionHelper;
+    private final Executor resolveStage;
+    private final Executor downloadStage;
+    private final Executor verifyStage;
+    private final Executor relocateStage;
+    private final Map<Dependency, CompletableFuture<File>> nodes = new ConcurrentHashMap<>();
+
+    public DependencyScheduler(final InjectionHelper injectionHelper, final Executor executor) {
+        this(injectionHelper, executor, executor, executor, executor);
+    }
+
+    public DependencyScheduler(final InjectionHelper injectionHelper, final Executor executor, final PipelineConfiguration configuration) {
+        this(
+            injectionHelper,
+            new BoundedExecutor(executor, configuration.getResolveParallelism(), configuration.getQueueCapacity()),
+            new BoundedExecutor(executor, configuration.getDownloadParallelism(), configuration.getQueueCapacity()),
+            new BoundedExecutor(executor, configuration.getVerifyParallelism(), configuration.getQueueCapacity()),
+            new BoundedExecutor(executor, configuration.getRelocateParallelism(), configuration.getQueueCapacity())
+        );
+    }
+
+    public DependencyScheduler(final InjectionHelper injectionHelper, final Executor resolveStage, final Executor downloadStage, final Executor verifyStage, final Executor relocateStage) {
+        this.injectionHelper = injectionHelper;
+        this.resolveStage = resolveStage;
+        this.downloadStage = downloadStage;
+        this.verifyStage = verifyStage;
+        this.relocateStage = relocateStage;
+    }
+
+    public void inject(final Injectable injectable, final Collection<Dependency> dependencies) {
+        dependencies.forEach(this::schedule);
+        injectInOrder(injectable, dependencies, new HashSet<>());
+    }
+
+    /**
+     * Verifies every already downloaded artifact in the tree concurrently on the verify stage.
+     * A warm cache then takes about as long as hashing its largest jar, and the later verify stage
+     * reuses these results instead of hashing again. Stale copies are removed so the pipeline fetches them anew.
+     */
+    public CacheVerificationReport verifyCache(final Collection<Dependency> dependencies) {
+        return verifyCache(dependencies, false);
+    }
+
+    /**
+     * @param exhaustive Also descend into missing dependencies that are not aggregators, so the report covers
+     *                   everything the pipeline would fetch. This resolves every missing dependency, so it is only cheap with a local resolver.
+     */
+    public CacheVerificationReport verifyCache(final Collection<Dependency> dependencies, final boolean exhaustive) {
+        final Map<Dependency, CacheStatus> statuses = new ConcurrentHashMap<>();
+        verifyCached(dependencies, statuses, exhaustive).join();
+        return new CacheVerificationReport(statuses);
+    }
+
+    private CompletableFuture<Void> verifyCached(final Collection<Dependency> dependencies, final Map<Dependency, CacheStatus> statuses, final boolean exhaustive) {
+        final CompletableFuture<?>[] verifications = dependencies.stream()
+                .filter(dependency -> statuses.putIfAbsent(dependency, CacheStatus.MISSING) == null)
+                .map(dependency -> CompletableFuture.supplyAsync(() -> stage(() -> injectionHelper.verifyCached(dependency)), verifyStage)
+                        .exceptionally(throwable -> {
+                            // The pipeline verifies again and surfaces the failure properly.
+                            LOGGER.debug("Could not verify cached copy of %s: %s", dependency.artifactId(), throwable.getMessage());
+                            return CacheStatus.MISSING;
+                        })
+                        .thenCompose(status -> {
+                            statuses.put(dependency, status);
+                            // Mirrors the pipeline, which never descends into dependencies without a jar.
+                            final boolean descend = switch (status) {
+                                case VERIFIED, STALE -> true;
+                                case AGGREGATOR -> false;
+                                case MISSING -> exhaustive && !injectionHelper.isAggregator(dependency);
+                            };
+                            return descend ? verifyCached(dependency.transitive(), statuses, exhaustive) : CompletableFuture.completedFuture(null);
+                        }))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(verifications);
+    }
+
+    private void schedule(final Dependency dependency) {
+        final CompletableFuture<File> node = new CompletableFuture<>();
+        if (nodes.putIfAbsent(dependency, node) != null) return;
+
+        final CompletableFuture<Void> resolved = CompletableFuture.runAsync(() -> stage(() -> {
+            injectionHelper.resolve(dependency);
+            return null;
+        }), resolveStage);
+        // Checksums are fetched alongside the artifact instead of after it.
+        final CompletableFuture<Void> prepared = resolved.thenRunAsync(() -> stage(() -> {
+            injectionHelper.prepareVerification(dependency);
+            return null;
+        }), downloadStage);
+
+        resolved.thenApplyAsync(ignored -> stage(() -> injectionHelper.download(dependency)), downloadStage)
+                .thenApply(file -> scheduleTransitives(dependency, file))
+                .thenCombine(prepared, (file, ignored) -> file)
+                .thenApplyAsync(file -> stage(() -> injectionHelper.verify(dependency, file)), verifyStage)
+                .thenApplyAsync(file -> stage(() -> injectionHelper.relocate(dependency, file)), relocateStage)
+                .whenComplete((file, throwable) -> {
+                    if (throwable == null) {
+                        node.complete(file);
+                    } else {
+                        node.completeExceptionally(throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable);
+                    }
+                });
+    }
+
+    // Transitive dependencies are only scheduled once their parent downloaded to an actual jar,
+    // aggregators (null results) keep their subtree out of the graph just like the sequential walk did.
+    private File scheduleTransitives(final Dependency dependency, final File file) {
+        if (file != null) {
+            dependency.transitive().forEach(this::schedule);
+        }
+        return file;
+    }
+
+    private static <T> T stage(final Stage<T> stage) {
+        try {
+            return stage.run();
+        } catch (final Exception exception) {
+            throw new CompletionException(exception);
+        }
+    }
+
+    private void injectInOrder(final Injectable injectable, final Collection<Dependency> dependencies, final Set<Dependency> visited) {
+        for (final Dependency dependency : dependencies) {
+            if (!visited.add(dependency)) continue;
+
+            final File file = await(dependency);
+            if (file == null) continue;
+
+            try {
+                injectable.inject(file.toURI().toURL());
+            } catch (final IOException e) {
+                throw new InjectionFailedException(dependency, e);
+            } catch (IllegalAccessException | InvocationTargetException | URISyntaxException e) {
+                e.printStackTrace();
+                continue;
+            }
+            injectInOrder(injectable, dependency.transitive(), visited);
+        }
+    }
+
+    private File await(final Dependency dependency) {
+        try {
+            return nodes.get(dependency).join();
+        } catch (final CompletionException exception) {
+            final Throwable cause = exception.getCause();
+            if (cause instanceof IOException ioException) {
+                throw new InjectionFailedException(dependency, ioException);
+            }
+            if (cause instanceof IllegalAccessException || cause instanceof InvocationTargetException) {
+                cause.printStackTrace();
+                return null;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Stage<T> {
+        T run() throws Exception;
+    }
+}
@@ -0,0 +1,148 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.injector;
+
+/**
+ * Parallelism of each stage in the injection pipeline (resolve, download, verify, relocate).
+ * Network bound stages default to a higher parallelism than CPU bound ones so both are kept busy at the same time.
+ * Injection itself always happens in order on the calling thread.
+ */
+public final class PipelineConfiguration {
+    private static final int AVAILABLE_PROCESSORS = Runtime.getRuntime().availableProcessors();
+    private final int resolveParallelism;
+    private final int downloadParallelism;
+    private final int verifyParallelism;
+    private final int relocateParallelism;
+    private final int queueCapacity;
+    private final boolean bulkVerification;
+
+    public PipelineConfiguration(final int resolveParallelism, final int downloadParallelism, final int verifyParallelism, final int relocateParallelism, final int queueCapacity) {
+        this(resolveParallelism, downloadParallelism, verifyParallelism, relocateParallelism, queueCapacity, true);
+    }
+
+    public PipelineConfiguration(final int resolveParallelism, final int downloadParallelism, final int verifyParallelism, final int relocateParallelism, final int queueCapacity, final boolean bulkVerification) {
+        this.resolveParallelism = requirePositive("resolve parallelism", resolveParallelism);
+        this.downloadParallelism = requirePositive("download parallelism", downloadParallelism);
+        this.verifyParallelism = requirePositive("verify parallelism", verifyParallelism);
+        this.relocateParallelism = requirePositive("relocate parallelism", relocateParallelism);
+        this.queueCapacity = requirePositive("queue capacity", queueCapacity);
+        this.bulkVerification = bulkVerification;
+    }
+
+    public int getResolveParallelism() {
+        return resolveParallelism;
+    }
+
+    public int getDownloadParallelism() {
+        return downloadParallelism;
+    }
+
+    public int getVerifyParallelism() {
+        return verifyParallelism;
+    }
+
+    public int getRelocateParallelism() {
+        return relocateParallelism;
+    }
+
+    /**
+     * @return Number of tasks a stage may hold before the upstream stage has to run them itself.
+     */
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * @return Whether every cached artifact is verified concurrently before the pipeline starts.
+     */
+    public boolean isBulkVerification() {
+        return bulkVerification;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private static int requirePositive(final String name, final int value) {
+        if (value < 1) {
+            throw new IllegalArgumentException("Pipeline " + name + " must be at least 1, got " + value);
+        }
+        return value;
+    }
+
+    public static final class Builder {
+        private int resolveParallelism = Math.max(8, AVAILABLE_PROCESSORS * 2);
+        private int downloadParallelism = Math.max(8, AVAILABLE_PROCESSORS * 2);
+        private int verifyParallelism = AVAILABLE_PROCESSORS;
+        private int relocateParallelism = AVAILABLE_PROCESSORS;
+        private int queueCapacity = 64;
+        private boolean bulkVerification = true;
+
+        /**
+         * Uses the same parallelism for every stage.
+         */
+        public Builder parallelism(final int parallelism) {
+            this.resolveParallelism = parallelism;
+            this.downloadParallelism = parallelism;
+            this.verifyParallelism = parallelism;
+            this.relocateParallelism = parallelism;
+            return this;
+        }
+
+        public Builder resolveParallelism(final int resolveParallelism) {
+            this.resolveParallelism = resolveParallelism;
+            return this;
+        }
+
+        public Builder downloadParallelism(final int downloadParallelism) {
+            this.downloadParallelism = downloadParallelism;
+            return this;
+        }
+
+        public Builder verifyParallelism(final int verifyParallelism) {
+            this.verifyParallelism = verifyParallelism;
+            return this;
+        }
+
+        public Builder relocateParallelism(final int relocateParallelism) {
+            this.relocateParallelism = relocateParallelism;
+            return this;
+        }
+
+        public Builder queueCapacity(final int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        public Builder bulkVerification(final boolean bulkVerification) {
+            this.bulkVerification = bulkVerification;
+            return this;
+        }
+
+        public PipelineConfiguration build() {
+            return new PipelineConfiguration(resolveParallelism, downloadParallelism, verifyParallelism, relocateParallelism, queueCapacity, bulkVerification);
+        }
+    }
+}
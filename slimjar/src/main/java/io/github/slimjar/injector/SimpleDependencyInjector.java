@@ -27,61 +27,65 @@ package io.github.slimjar.injector;
 import io.github.slimjar.injector.helper.InjectionHelper;
 import io.github.slimjar.injector.helper.InjectionHelperFactory;
 import io.github.slimjar.injector.loader.Injectable;
+import io.github.slimjar.logging.LogDispatcher;
+import io.github.slimjar.logging.ProcessLogger;
 import io.github.slimjar.resolver.ResolutionResult;
 import io.github.slimjar.resolver.data.Dependency;
 import io.github.slimjar.resolver.data.DependencyData;
+import io.github.slimjar.util.Concurrency;
 
 import java.io.IOException;
-import java.lang.reflect.InvocationTargetException;
 import java.net.URISyntaxException;
 import java.security.NoSuchAlgorithmException;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
 
 public final class SimpleDependencyInjector implements DependencyInjector {
+    private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
     private final InjectionHelperFactory injectionHelperFactory;
-    private final List<Dependency> processingDependencies = Collections.synchronizedList(new ArrayList<>());
+    private final Executor executor;
+    private final PipelineConfiguration pipelineConfiguration;
+    private final boolean offline;
 
     public SimpleDependencyInjector(final InjectionHelperFactory injectionHelperFactory) {
-        this.injectionHelperFactory = injectionHelperFactory;
+        this(injectionHelperFactory, Concurrency.defaultExecutor(), PipelineConfiguration.builder().build());
     }
 
-    @Override
-    public void inject(final Injectable injectable, final DependencyData data, final Map<String, ResolutionResult> preResolvedResults) throws ReflectiveOperationException, NoSuchAlgorithmException, IOException, URISyntaxException {
-        final InjectionHelper helper = injectionHelperFactory.create(data, preResolvedResults);
-        injectDependencies(injectable, helper, data.dependencies());
+    public SimpleDependencyInjector(final InjectionHelperFactory injectionHelperFactory, final Executor executor, final int parallelism) {
+        this(injectionHelperFactory, executor, PipelineConfiguration.builder().parallelism(parallelism).build());
     }
 
-    // TODO -> Download dependencies in parallel then check the checksums after instead of during the download
-    private void injectDependencies(final Injectable injectable, final InjectionHelper injectionHelper, final Collection<Dependency> dependencies) throws RuntimeException {
-        dependencies.stream()
-            .filter(dependency -> !injectionHelper.isInjected(dependency))
-            .forEach(dependency -> {
-                if (processingDependencies.contains(dependency)) return;
-                processingDependencies.add(dependency);
-
-                try {
-                    final var depJar = injectionHelper.fetch(dependency);
-
-                    if (depJar == null) return;
+    public SimpleDependencyInjector(final InjectionHelperFactory injectionHelperFactory, final Executor executor, final PipelineConfiguration pipelineConfiguration) {
+        this(injectionHelperFactory, executor, pipelineConfiguration, false);
+    }
 
-                    injectable.inject(depJar.toURI().toURL());
-                    injectDependencies(injectable, injectionHelper, dependency.transitive());
-                } catch (final IOException e) {
-                    throw new InjectionFailedException(dependency, e);
-                } catch (IllegalAccessException | InvocationTargetException | URISyntaxException e) {
-                    e.printStackTrace();
-                } catch (ReflectiveOperationException | InterruptedException e) {
-                    throw new RuntimeException(e);
-                }
+    /**
+     * @param offline Fail before injecting anything if a dependency is not available in the download directory
+     */
+    public SimpleDependencyInjector(final InjectionHelperFactory injectionHelperFactory, final Executor executor, final PipelineConfiguration pipelineConfiguration, final boolean offline) {
+        this.injectionHelperFactory = injectionHelperFactory;
+        this.executor = executor;
+        this.pipelineConfiguration = pipelineConfiguration;
+        this.offline = offline;
+    }
 
-                processingDependencies.remove(dependency);
+    @Override
+    public void inject(final Injectable injectable, final DependencyData data, final Map<String, ResolutionResult> preResolvedResults) throws ReflectiveOperationException, NoSuchAlgorithmException, IOException, URISyntaxException {
+        final InjectionHelper helper = injectionHelperFactory.create(data, preResolvedResults);
+        final DependencyScheduler scheduler = new DependencyScheduler(helper, executor, pipelineConfiguration);
+        if (offline) {
+            final CacheVerificationReport report = scheduler.verifyCache(data.dependencies(), true);
+            final Set<Dependency> missing = report.getRefetchRequired();
+            // Aggregators only ever leave a marker file behind, they are not missing if it was never written.
+            missing.removeIf(helper::isAggregator);
+            if (!missing.isEmpty()) {
+                throw new MissingDependenciesException(missing);
             }
-        );
+        } else if (pipelineConfiguration.isBulkVerification()) {
+            final CacheVerificationReport report = scheduler.verifyCache(data.dependencies());
+            LOGGER.debug("Verified %d cached dependencies, %d need to be fetched", report.getVerified().size(), report.getRefetchRequired().size());
+        }
+        scheduler.inject(injectable, data.dependencies());
     }
-
-
 }
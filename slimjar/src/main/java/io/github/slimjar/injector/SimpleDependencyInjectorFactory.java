@@ -25,10 +25,55 @@
 package io.github.slimjar.injector;
 
 import io.github.slimjar.injector.helper.InjectionHelperFactory;
+import io.github.slimjar.util.Concurrency;
+
+import java.util.concurrent.Executor;
 
 public final class SimpleDependencyInjectorFactory implements DependencyInjectorFactory {
+    private final Executor executor;
+    private final PipelineConfiguration pipelineConfiguration;
+    private final boolean offline;
+
+    public SimpleDependencyInjectorFactory() {
+        this(Concurrency.defaultExecutor(), PipelineConfiguration.builder().build());
+    }
+
+    /**
+     * @param parallelism Parallelism of every pipeline stage.
+     */
+    public SimpleDependencyInjectorFactory(final int parallelism) {
+        this(Concurrency.defaultExecutor(), parallelism);
+    }
+
+    /**
+     * @param executor Executor the pipeline stages run on.
+     * @param parallelism Parallelism of every pipeline stage.
+     */
+    public SimpleDependencyInjectorFactory(final Executor executor, final int parallelism) {
+        this(executor, PipelineConfiguration.builder().parallelism(parallelism).build());
+    }
+
+    /**
+     * @param executor Executor the pipeline stages run on.
+     * @param pipelineConfiguration Parallelism of the individual pipeline stages.
+     */
+    public SimpleDependencyInjectorFactory(final Executor executor, final PipelineConfiguration pipelineConfiguration) {
+        this(executor, pipelineConfiguration, false);
+    }
+
+    /**
+     * @param executor Executor the pipeline stages run on.
+     * @param pipelineConfiguration Parallelism of the individual pipeline stages.
+     * @param offline Whether injection fails upfront when a dependency is not available in the download directory.
+     */
+    public SimpleDependencyInjectorFactory(final Executor executor, final PipelineConfiguration pipelineConfiguration, final boolean offline) {
+        this.executor = executor;
+        this.pipelineConfiguration = pipelineConfiguration;
+        this.offline = offline;
+    }
+
     @Override
     public DependencyInjector create(final InjectionHelperFactory injectionHelperFactory) {
-        return new SimpleDependencyInjector(injectionHelperFactory);
+        return new SimpleDependencyInjector(injectionHelperFactory, executor, pipelineConfiguration, offline);
     }
 }
@@ -48,6 +48,7 @@ import java.lang.reflect.Method;
 import java.net.MalformedURLException;
 import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.file.Path;
 import java.security.NoSuchAlgorithmException;
 import java.util.Collections;
 import java.util.UUID;
@@ -61,18 +62,31 @@ public final class ByteBuddyInstrumentationFactory implements InstrumentationFac
     private final URL agentJarUrl;
     private final ModuleExtractor extractor;
     private final JarRelocatorFacadeFactory relocatorFacadeFactory;
+    private final Path downloadPath;
+    private final boolean offline;
 
     public ByteBuddyInstrumentationFactory(final JarRelocatorFacadeFactory relocatorFacadeFactory) {
-        this.relocatorFacadeFactory = relocatorFacadeFactory;
-        this.agentJarUrl = InstrumentationInjectable.class.getClassLoader().getResource(AGENT_JAR);
-        this.extractor = new TemporaryModuleExtractor();
+        this(relocatorFacadeFactory, null, false);
     }
 
+    /**
+     * @param downloadPath Directory byte-buddy-agent is downloaded to, null for the default one
+     * @param offline Whether byte-buddy-agent may only be loaded from <code>downloadPath</code>
+     */
+    public ByteBuddyInstrumentationFactory(final JarRelocatorFacadeFactory relocatorFacadeFactory, final Path downloadPath, final boolean offline) {
+        this(InstrumentationInjectable.class.getClassLoader().getResource(AGENT_JAR), new TemporaryModuleExtractor(), relocatorFacadeFactory, downloadPath, offline);
+    }
 
     public ByteBuddyInstrumentationFactory(final URL agentJarUrl, final ModuleExtractor extractor, final JarRelocatorFacadeFactory relocatorFacadeFactory) {
+        this(agentJarUrl, extractor, relocatorFacadeFactory, null, false);
+    }
+
+    public ByteBuddyInstrumentationFactory(final URL agentJarUrl, final ModuleExtractor extractor, final JarRelocatorFacadeFactory relocatorFacadeFactory, final Path downloadPath, final boolean offline) {
         this.agentJarUrl = agentJarUrl;
         this.extractor = extractor;
         this.relocatorFacadeFactory = relocatorFacadeFactory;
+        this.downloadPath = downloadPath;
+        this.offline = offline;
     }
 
     @Override
@@ -94,7 +108,11 @@ public final class ByteBuddyInstrumentationFactory implements InstrumentationFac
                 .attribute("Agent-Class", relocatedAgentClass)
                 .generate();
 
-        ApplicationBuilder.injecting("SlimJar-Agent", classLoader)
+        final ApplicationBuilder builder = ApplicationBuilder.injecting("SlimJar-Agent", classLoader);
+        if (downloadPath != null) {
+            builder.downloadDirectoryPath(downloadPath);
+        }
+        builder.offline(offline)
                 .dataProviderFactory(dataUrl -> ByteBuddyInstrumentationFactory::getDependency)
                 .relocatorFactory(rules -> new PassthroughRelocator())
                 .relocationHelperFactory(rel -> (dependency, file) -> file)
@@ -25,45 +25,207 @@
 package io.github.slimjar.injector.helper;
 
 
+import io.github.slimjar.downloader.AbstractDependencyDownloader;
 import io.github.slimjar.downloader.DependencyDownloader;
+import io.github.slimjar.downloader.MavenLocalRepository;
+import io.github.slimjar.downloader.strategy.FilePathStrategy;
+import io.github.slimjar.downloader.verify.DependencyVerifier;
+import io.github.slimjar.logging.LogDispatcher;
+import io.github.slimjar.logging.ProcessLogger;
 import io.github.slimjar.relocation.helper.RelocationHelper;
+import io.github.slimjar.resolver.DependencyResolver;
+import io.github.slimjar.resolver.ResolutionResult;
 import io.github.slimjar.resolver.data.Dependency;
+import io.github.slimjar.util.SingleFlight;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Optional;
 
+/**
+ * Processes a single dependency through the resolve, download, verify and relocate stages.
+ * Downloads and verifications are single-flight across every helper sharing the same {@link SingleFlight} instances,
+ * so a dependency reachable through several paths is fetched once and every requester waits on that one fetch.
+ * Each stage is exposed separately so they can be pipelined across dependencies, {@link #fetch(Dependency)} runs them back to back.
+ */
 public final class InjectionHelper {
-    private final Set<Dependency> injectedDependencies;
+    private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
+    private static final DependencyVerifier NO_VERIFICATION = new DependencyVerifier() {
+        @Override
+        public boolean verify(final File file, final Dependency dependency) {
+            return true;
+        }
+
+        @Override
+        public File getChecksumFile(final Dependency dependency) {
+            return null;
+        }
+    };
+    private final SingleFlight<Dependency, File> downloads;
+    private final SingleFlight<Dependency, File> verifications;
+    private final DependencyResolver dependencyResolver;
     private final DependencyDownloader dependencyDownloader;
+    private final DependencyVerifier dependencyVerifier;
     private final RelocationHelper relocationHelper;
+    private final FilePathStrategy filePathStrategy;
+    private final MavenLocalRepository localRepository;
+
+    public InjectionHelper(
+        final DependencyResolver dependencyResolver,
+        final DependencyDownloader dependencyDownloader,
+        final DependencyVerifier dependencyVerifier,
+        final RelocationHelper relocationHelper,
+        final FilePathStrategy filePathStrategy,
+        final SingleFlight<Dependency, File> downloads,
+        final SingleFlight<Dependency, File> verifications
+    ) {
+        this(dependencyResolver, dependencyDownloader, dependencyVerifier, relocationHelper, filePathStrategy, downloads, verifications, null);
+    }
 
+    /**
+     * @param localRepository Consulted for dependencies missing from the download directory before they are downloaded, may be null
+     */
     public InjectionHelper(
+        final DependencyResolver dependencyResolver,
         final DependencyDownloader dependencyDownloader,
+        final DependencyVerifier dependencyVerifier,
         final RelocationHelper relocationHelper,
-        final Set<Dependency> injectedDependencies
+        final FilePathStrategy filePathStrategy,
+        final SingleFlight<Dependency, File> downloads,
+        final SingleFlight<Dependency, File> verifications,
+        final MavenLocalRepository localRepository
     ) {
+        this.localRepository = localRepository;
+        this.dependencyResolver = dependencyResolver;
         this.dependencyDownloader = dependencyDownloader;
+        this.dependencyVerifier = dependencyVerifier;
         this.relocationHelper = relocationHelper;
-        this.injectedDependencies = injectedDependencies;
+        this.filePathStrategy = filePathStrategy;
+        this.downloads = downloads;
+        this.verifications = verifications;
     }
 
     public InjectionHelper(final DependencyDownloader dependencyDownloader, final RelocationHelper relocationHelper) {
-        this(dependencyDownloader, relocationHelper, new HashSet<>());
+        this(dependency -> Optional.empty(), dependencyDownloader, NO_VERIFICATION, relocationHelper, null, new SingleFlight<>(), new SingleFlight<>());
     }
 
     public File fetch(final Dependency dependency) throws IOException, ReflectiveOperationException, InterruptedException {
+        resolve(dependency);
+        prepareVerification(dependency);
+        final File downloaded = download(dependency);
+        return relocate(dependency, verify(dependency, downloaded));
+    }
+
+    /**
+     * Warms up the resolver for dependencies that are not available locally yet,
+     * so the download stage does not have to wait on repository enquiries.
+     * Snapshots without a fixed build are resolved even when present, a newer build replaces the local copy under the same name.
+     */
+    public void resolve(final Dependency dependency) {
+        if (filePathStrategy == null) return;
+        final boolean movingSnapshot = dependency.snapshotId() == null && dependency.version().endsWith("-SNAPSHOT");
+        if (!movingSnapshot && filePathStrategy.selectFileFor(dependency).exists()) return;
+        dependencyResolver.resolve(dependency);
+    }
+
+    /**
+     * Fetches checksums and similar verification data, may run concurrently with {@link #download(Dependency)}.
+     */
+    public void prepareVerification(final Dependency dependency) throws IOException, InterruptedException {
+        dependencyVerifier.prepare(dependency);
+    }
+
+    /**
+     * @return Downloaded (or already present) file, null if the dependency is an aggregator.
+     */
+    public File download(final Dependency dependency) throws IOException, InterruptedException {
+        return downloads.execute(dependency, () -> {
+            linkLocal(dependency);
+            return dependencyDownloader.download(dependency);
+        });
+    }
+
+    /**
+     * Verifies the downloaded file, re-downloading it once if the local copy does not match.
+     */
+    public File verify(final Dependency dependency, final File file) throws IOException, InterruptedException {
+        if (file == null) return null;
+        return verifications.execute(dependency, () -> verifyOrDownloadAgain(dependency, file));
+    }
+
+    @SuppressWarnings("ResultOfMethodCallIgnored")
+    private File verifyOrDownloadAgain(final Dependency dependency, final File file) throws IOException, InterruptedException {
+        if (dependencyVerifier.verify(file, dependency)) return file;
+
+        LOGGER.log("Verification failed for %s, downloading it again", dependency.artifactId());
+        file.delete();
+        final File checksumFile = dependencyVerifier.getChecksumFile(dependency);
+        if (checksumFile != null) {
+            checksumFile.delete();
+        }
         final File downloaded = dependencyDownloader.download(dependency);
-        if (downloaded == null) {
-            return null;
+        if (downloaded != null && !dependencyVerifier.verify(downloaded, dependency)) {
+            LOGGER.log("Verification failed again for freshly downloaded %s", dependency.artifactId());
         }
+        return downloaded;
+    }
+
+    /**
+     * Verifies the locally cached copy of a dependency without downloading anything.
+     * Verified copies are remembered so the verify stage does not hash them again,
+     * stale copies are deleted together with their checksum so the download stage fetches them anew.
+     */
+    @SuppressWarnings("ResultOfMethodCallIgnored")
+    public CacheStatus verifyCached(final Dependency dependency) throws IOException, InterruptedException {
+        if (filePathStrategy == null) return CacheStatus.MISSING;
+        final File file = filePathStrategy.selectFileFor(dependency);
+        if (!file.exists() && !linkLocal(dependency)) return CacheStatus.MISSING;
+        if (AbstractDependencyDownloader.isAggregatorMarker(file)) return CacheStatus.AGGREGATOR;
 
-        injectedDependencies.add(dependency);
-        return relocationHelper.relocate(dependency, downloaded);
+        if (dependencyVerifier.verify(file, dependency)) {
+            verifications.execute(dependency, () -> file);
+            return CacheStatus.VERIFIED;
+        }
+        LOGGER.log("Cached copy of %s failed verification, it will be downloaded again", dependency.artifactId());
+        file.delete();
+        final File checksumFile = dependencyVerifier.getChecksumFile(dependency);
+        if (checksumFile != null) {
+            checksumFile.delete();
+        }
+        return CacheStatus.STALE;
+    }
+
+    // A linked copy goes through the same verification as a download, a mismatch is deleted and downloaded instead.
+    private boolean linkLocal(final Dependency dependency) throws IOException, InterruptedException {
+        if (localRepository == null || filePathStrategy == null) return false;
+        final File target = filePathStrategy.selectFileFor(dependency);
+        return target.exists() || localRepository.link(dependency, target) != null;
+    }
+
+    public File relocate(final Dependency dependency, final File file) throws IOException, ReflectiveOperationException {
+        if (file == null) return null;
+        return relocationHelper.relocate(dependency, file);
+    }
+
+    /**
+     * @return Whether the resolver knows <code>dependency</code> to be an aggregator without a jar of its own
+     */
+    public boolean isAggregator(final Dependency dependency) {
+        return dependencyResolver.resolve(dependency).map(ResolutionResult::isAggregator).orElse(false);
     }
 
     public boolean isInjected(final Dependency dependency) {
-        return injectedDependencies.contains(dependency);
+        return downloads.hasResult(dependency);
+    }
+
+    public enum CacheStatus {
+        /** Not present in the download directory. */
+        MISSING,
+        /** Present and matches its checksum. */
+        VERIFIED,
+        /** Present but corrupt or outdated, needs to be fetched again. */
+        STALE,
+        /** Present as an aggregator marker, there is no jar and the pipeline does not descend into its dependencies. */
+        AGGREGATOR
     }
 }
@@ -26,10 +26,13 @@ package io.github.slimjar.injector.helper;
 
 import io.github.slimjar.downloader.DependencyDownloader;
 import io.github.slimjar.downloader.DependencyDownloaderFactory;
+import io.github.slimjar.downloader.MavenLocalRepository;
 import io.github.slimjar.downloader.output.DependencyOutputWriterFactory;
 import io.github.slimjar.downloader.output.OutputWriterFactory;
 import io.github.slimjar.downloader.strategy.FilePathStrategy;
+import io.github.slimjar.downloader.verify.DependencyVerifier;
 import io.github.slimjar.downloader.verify.DependencyVerifierFactory;
+import io.github.slimjar.downloader.verify.PassthroughDependencyVerifierFactory;
 import io.github.slimjar.injector.DependencyInjectorFactory;
 import io.github.slimjar.relocation.Relocator;
 import io.github.slimjar.relocation.RelocatorFactory;
@@ -38,12 +41,15 @@ import io.github.slimjar.relocation.helper.RelocationHelperFactory;
 import io.github.slimjar.resolver.DependencyResolver;
 import io.github.slimjar.resolver.DependencyResolverFactory;
 import io.github.slimjar.resolver.ResolutionResult;
+import io.github.slimjar.resolver.data.Dependency;
 import io.github.slimjar.resolver.data.DependencyData;
 import io.github.slimjar.resolver.data.Repository;
 import io.github.slimjar.resolver.enquirer.RepositoryEnquirerFactory;
 import io.github.slimjar.resolver.mirrors.MirrorSelector;
 import io.github.slimjar.resolver.reader.dependency.DependencyDataProviderFactory;
+import io.github.slimjar.util.SingleFlight;
 
+import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.nio.file.Path;
@@ -60,8 +66,20 @@ public final class InjectionHelperFactory {
     private final DependencyDownloaderFactory downloaderFactory;
     private final DependencyVerifierFactory verifier;
     private final MirrorSelector mirrorSelector;
+    private final MavenLocalRepository localRepository;
+    // Shared by every helper so the same artifact is never fetched or verified twice in one build.
+    private final SingleFlight<Dependency, File> downloads = new SingleFlight<>();
+    private final SingleFlight<Dependency, File> verifications = new SingleFlight<>();
 
     public InjectionHelperFactory(Path downloadDirectoryPath, RelocatorFactory relocatorFactory, DependencyDataProviderFactory dataProviderFactory, RelocationHelperFactory relocationHelperFactory, DependencyInjectorFactory injectorFactory, DependencyResolverFactory resolverFactory, RepositoryEnquirerFactory enquirerFactory, DependencyDownloaderFactory downloaderFactory, DependencyVerifierFactory verifier, MirrorSelector mirrorSelector) {
+        this(downloadDirectoryPath, relocatorFactory, dataProviderFactory, relocationHelperFactory, injectorFactory, resolverFactory, enquirerFactory, downloaderFactory, verifier, mirrorSelector, null);
+    }
+
+    /**
+     * @param localRepository Local Maven repository consulted before any remote repository, may be null
+     */
+    public InjectionHelperFactory(Path downloadDirectoryPath, RelocatorFactory relocatorFactory, DependencyDataProviderFactory dataProviderFactory, RelocationHelperFactory relocationHelperFactory, DependencyInjectorFactory injectorFactory, DependencyResolverFactory resolverFactory, RepositoryEnquirerFactory enquirerFactory, DependencyDownloaderFactory downloaderFactory, DependencyVerifierFactory verifier, MirrorSelector mirrorSelector, MavenLocalRepository localRepository) {
+        this.localRepository = localRepository;
         this.downloadDirectoryPath = downloadDirectoryPath;
         this.relocatorFactory = relocatorFactory;
         this.relocationHelperFactory = relocationHelperFactory;
@@ -80,7 +98,10 @@ public final class InjectionHelperFactory {
         final FilePathStrategy filePathStrategy = FilePathStrategy.createDefault(downloadDirectoryPath.toFile());
         final OutputWriterFactory outputWriterFactory = new DependencyOutputWriterFactory(filePathStrategy);
         final DependencyResolver resolver = resolverFactory.create(repositories, preResolvedResults, enquirerFactory);
-        final DependencyDownloader downloader = downloaderFactory.create(outputWriterFactory, resolver, verifier.create(resolver));
-        return new InjectionHelper(downloader, relocationHelper);
+        // Verification is its own pipeline stage, the downloader only has to check whether a file is present.
+        final DependencyVerifier dependencyVerifier = verifier.create(resolver);
+        final DependencyVerifier presenceVerifier = new PassthroughDependencyVerifierFactory().create(resolver);
+        final DependencyDownloader downloader = downloaderFactory.create(outputWriterFactory, resolver, presenceVerifier);
+        return new InjectionHelper(resolver, downloader, dependencyVerifier, relocationHelper, filePathStrategy, downloads, verifications, localRepository);
     }
 }
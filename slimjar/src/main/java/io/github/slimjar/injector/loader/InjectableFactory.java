@@ -43,6 +43,13 @@ public final class InjectableFactory {
     }
 
     public static Injectable create(final Path downloadPath, final Collection<Repository> repositories, final ClassLoader classLoader) throws URISyntaxException, ReflectiveOperationException, NoSuchAlgorithmException, IOException, InterruptedException {
+        return create(downloadPath, repositories, classLoader, false);
+    }
+
+    /**
+     * @param offline Whether the agent fallback may only load its dependencies from <code>downloadPath</code>
+     */
+    public static Injectable create(final Path downloadPath, final Collection<Repository> repositories, final ClassLoader classLoader, final boolean offline) throws URISyntaxException, ReflectiveOperationException, NoSuchAlgorithmException, IOException, InterruptedException {
         final boolean isJigsawActive = isJigsawActive();
         Injectable injectable = null;
 
@@ -57,7 +64,7 @@ public final class InjectableFactory {
         }
 
         if (injectable == null) {
-            injectable = InstrumentationInjectable.create(downloadPath, repositories);
+            injectable = InstrumentationInjectable.create(downloadPath, repositories, offline);
         }
         return injectable;
     }
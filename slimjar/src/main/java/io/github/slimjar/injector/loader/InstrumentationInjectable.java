@@ -58,6 +58,13 @@ public final class InstrumentationInjectable implements Injectable {
         return create(new ByteBuddyInstrumentationFactory(ReflectiveJarRelocatorFacadeFactory.create(downloadPath, repositories)));
     }
 
+    /**
+     * @param offline Whether the agent and its relocator may only be loaded from <code>downloadPath</code>
+     */
+    public static Injectable create(final Path downloadPath, final Collection<Repository> repositories, final boolean offline) throws IOException, NoSuchAlgorithmException, ReflectiveOperationException, URISyntaxException, InterruptedException {
+        return create(new ByteBuddyInstrumentationFactory(ReflectiveJarRelocatorFacadeFactory.create(downloadPath, repositories, offline), downloadPath, offline));
+    }
+
     public static Injectable create(final InstrumentationFactory factory) throws IOException, NoSuchAlgorithmException, ReflectiveOperationException, URISyntaxException, InterruptedException {
         return new InstrumentationInjectable(factory.create());
     }
@@ -111,13 +111,25 @@ public final class ReflectiveJarRelocatorFacadeFactory implements JarRelocatorFa
     }
 
     public static JarRelocatorFacadeFactory create(final Path downloadPath, final Collection<Repository> repositories) throws URISyntaxException, ReflectiveOperationException, NoSuchAlgorithmException, IOException, InterruptedException {
+        return create(downloadPath, repositories, false);
+    }
+
+    /**
+     * @param offline Whether the facade's own dependencies may only be loaded from <code>downloadPath</code>
+     */
+    public static JarRelocatorFacadeFactory create(final Path downloadPath, final Collection<Repository> repositories, final boolean offline) throws URISyntaxException, ReflectiveOperationException, NoSuchAlgorithmException, IOException, InterruptedException {
         final InjectableClassLoader classLoader = new IsolatedInjectableClassLoader();
-        return create(downloadPath, repositories, classLoader);
+        return create(downloadPath, repositories, classLoader, offline);
     }
 
     public static JarRelocatorFacadeFactory create(final Path downloadPath, final Collection<Repository> repositories, final InjectableClassLoader classLoader) throws URISyntaxException, ReflectiveOperationException, NoSuchAlgorithmException, IOException, InterruptedException {
+        return create(downloadPath, repositories, classLoader, false);
+    }
+
+    public static JarRelocatorFacadeFactory create(final Path downloadPath, final Collection<Repository> repositories, final InjectableClassLoader classLoader, final boolean offline) throws URISyntaxException, ReflectiveOperationException, NoSuchAlgorithmException, IOException, InterruptedException {
         ApplicationBuilder.injecting("SlimJar", classLoader)
                 .downloadDirectoryPath(downloadPath)
+                .offline(offline)
                 .preResolutionDataProviderFactory(a -> Collections::emptyMap)
                 .dataProviderFactory(url -> () -> ReflectiveJarRelocatorFacadeFactory.getJarRelocatorDependency(repositories))
                 .relocatorFactory(rules -> new PassthroughRelocator())
@@ -52,6 +52,11 @@ public final class VerifyingRelocationHelper implements RelocationHelper {
     public File relocate(final Dependency dependency, final File file) throws IOException, ReflectiveOperationException {
         final File relocatedFile = outputFilePathStrategy.selectFileFor(dependency);
         final MetaMediator metaMediator = mediatorFactory.create(relocatedFile.toPath());
+        // A source replaced after relocating, such as a newer snapshot build, is relocated again.
+        if (relocatedFile.exists() && relocatedFile.lastModified() < file.lastModified()) {
+            //noinspection ResultOfMethodCallIgnored
+            relocatedFile.delete();
+        }
         if (relocatedFile.exists()) {
             try {
                 final String ownerHash = metaMediator.readAttribute("slimjar.owner");
@@ -25,7 +25,7 @@
 package io.github.slimjar.relocation.helper;
 
 import io.github.slimjar.downloader.strategy.FilePathStrategy;
-import io.github.slimjar.downloader.verify.FileChecksumCalculator;
+import io.github.slimjar.downloader.verify.ChecksumCalculator;
 import io.github.slimjar.relocation.Relocator;
 import io.github.slimjar.relocation.meta.MetaMediatorFactory;
 
@@ -47,7 +47,7 @@ public class VerifyingRelocationHelperFactory implements RelocationHelperFactory
         this.selfHash = selfHash;
     }
 
-    public VerifyingRelocationHelperFactory(final FileChecksumCalculator calculator, final FilePathStrategy relocationFilePathStrategy, final MetaMediatorFactory mediatorFactory, URL jarURL) throws URISyntaxException, IOException, InterruptedException {
+    public VerifyingRelocationHelperFactory(final ChecksumCalculator calculator, final FilePathStrategy relocationFilePathStrategy, final MetaMediatorFactory mediatorFactory, URL jarURL) throws URISyntaxException, IOException, InterruptedException {
         this(calculator.calculate(new File(jarURL.toURI())), relocationFilePathStrategy, mediatorFactory);
     }
 
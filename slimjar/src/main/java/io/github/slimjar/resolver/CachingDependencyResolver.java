@@ -32,36 +32,142 @@ import io.github.slimjar.resolver.data.Dependency;
 import io.github.slimjar.resolver.enquirer.RepositoryEnquirer;
 import io.github.slimjar.resolver.enquirer.RepositoryEnquirerFactory;
 import io.github.slimjar.resolver.pinger.URLPinger;
+import io.github.slimjar.util.BoundedExecutor;
+import io.github.slimjar.util.Concurrency;
 
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.Executor;
 
 public final class CachingDependencyResolver implements DependencyResolver {
     private static final String FAILED_RESOLUTION_MESSAGE = "[FAILED TO RESOLVE]";
     private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
+    private static final int BATCH_PARALLELISM = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
     private final URLPinger urlPinger;
-    private final Collection<RepositoryEnquirer> repositories;
+    private final Map<RepositoryEnquirer, Repository> repositories = new LinkedHashMap<>();
     private final Map<Dependency, ResolutionResult> cachedResults = new ConcurrentHashMap<>();
     private final Map<String, ResolutionResult> preResolvedResults;
+    private final RepositoryScheduler repositoryScheduler;
+    private final Executor batchExecutor;
+    private final Map<Dependency, CompletableFuture<Optional<ResolutionResult>>> inFlight = new ConcurrentHashMap<>();
+    private final ResolutionStore resolutionStore;
+    // Only successful resolutions are cached, failures are remembered here until the negative TTL passes.
+    private final Map<Dependency, Long> failedResolutions = new ConcurrentHashMap<>();
+    private final Duration negativeTtl;
 
     public CachingDependencyResolver(final URLPinger urlPinger, final Collection<Repository> repositories, final RepositoryEnquirerFactory enquirerFactory, final Map<String, ResolutionResult> preResolvedResults) {
+        this(urlPinger, repositories, enquirerFactory, preResolvedResults, Concurrency.defaultExecutor());
+    }
+
+    public CachingDependencyResolver(final URLPinger urlPinger, final Collection<Repository> repositories, final RepositoryEnquirerFactory enquirerFactory, final Map<String, ResolutionResult> preResolvedResults, final Executor executor) {
+        this(urlPinger, repositories, enquirerFactory, preResolvedResults, new RepositoryScheduler(executor), null);
+    }
+
+    /**
+     * @param repositoryScheduler Decides which repositories are enquired and when, may be shared to keep their statistics across resolvers
+     * @param resolutionStore Persistent store consulted before any repository is contacted, may be null
+     */
+    public CachingDependencyResolver(final URLPinger urlPinger, final Collection<Repository> repositories, final RepositoryEnquirerFactory enquirerFactory, final Map<String, ResolutionResult> preResolvedResults, final RepositoryScheduler repositoryScheduler, final ResolutionStore resolutionStore) {
+        this(urlPinger, repositories, enquirerFactory, preResolvedResults, repositoryScheduler, resolutionStore, resolutionStore != null ? resolutionStore.getNegativeTtl() : ResolutionStore.DEFAULT_NEGATIVE_TTL);
+    }
+
+    /**
+     * @param negativeTtl How long a failed resolution is remembered in memory, null to remember it indefinitely
+     */
+    public CachingDependencyResolver(final URLPinger urlPinger, final Collection<Repository> repositories, final RepositoryEnquirerFactory enquirerFactory, final Map<String, ResolutionResult> preResolvedResults, final RepositoryScheduler repositoryScheduler, final ResolutionStore resolutionStore, final Duration negativeTtl) {
         this.urlPinger = urlPinger;
+        this.repositoryScheduler = repositoryScheduler;
+        this.batchExecutor = new BoundedExecutor(repositoryScheduler.getExecutor(), BATCH_PARALLELISM);
+        this.resolutionStore = resolutionStore;
+        this.negativeTtl = negativeTtl;
         this.preResolvedResults = new ConcurrentHashMap<>(preResolvedResults);
-        this.repositories = repositories.stream()
-                .map(enquirerFactory::create)
-                .collect(Collectors.toSet());
+        repositories.forEach(repository -> this.repositories.put(enquirerFactory.create(repository), repository));
     }
 
     @Override
     public Optional<ResolutionResult> resolve(final Dependency dependency) {
-        return Optional.ofNullable(cachedResults.computeIfAbsent(dependency, dep -> attemptResolve(dep, Collections.emptyList())));
+        return resolve(dependency, Collections.emptyList());
     }
 
+    /**
+     * Resolves on the calling thread, or waits for the resolution of <code>dependency</code> that is already in flight.
+     * No lock is held while repositories are enquired, so resolutions of other dependencies never wait on it.
+     */
     public Optional<ResolutionResult> resolve(
         final Dependency dependency,
         final List<RepositoryEnquirer> enforcedRepositories
-    ) { return Optional.ofNullable(cachedResults.computeIfAbsent(dependency, dep -> attemptResolve(dep, enforcedRepositories))); }
+    ) {
+        final ResolutionResult cached = cachedResults.get(dependency);
+        if (cached != null) return Optional.of(cached);
+        final CompletableFuture<Optional<ResolutionResult>> future = new CompletableFuture<>();
+        final CompletableFuture<Optional<ResolutionResult>> existing = inFlight.putIfAbsent(dependency, future);
+        if (existing != null) return await(existing);
+        complete(dependency, enforcedRepositories, future);
+        return await(future);
+    }
+
+    @Override
+    public Map<Dependency, CompletableFuture<Optional<ResolutionResult>>> resolveAll(final Collection<Dependency> dependencies) {
+        return resolveAll(dependencies, Collections.emptyList());
+    }
+
+    /**
+     * Resolves the dependencies concurrently with bounded parallelism.
+     * A dependency that is already being resolved, by this or an earlier batch, shares that resolution instead of starting another.
+     */
+    public Map<Dependency, CompletableFuture<Optional<ResolutionResult>>> resolveAll(
+        final Collection<Dependency> dependencies,
+        final List<RepositoryEnquirer> enforcedRepositories
+    ) {
+        final Map<Dependency, CompletableFuture<Optional<ResolutionResult>>> results = new LinkedHashMap<>();
+        for (final Dependency dependency : dependencies) {
+            if (results.containsKey(dependency)) continue;
+            final ResolutionResult cached = cachedResults.get(dependency);
+            if (cached != null) {
+                results.put(dependency, CompletableFuture.completedFuture(Optional.of(cached)));
+                continue;
+            }
+            final CompletableFuture<Optional<ResolutionResult>> future = new CompletableFuture<>();
+            final CompletableFuture<Optional<ResolutionResult>> existing = inFlight.putIfAbsent(dependency, future);
+            if (existing != null) {
+                results.put(dependency, existing);
+                continue;
+            }
+            results.put(dependency, future);
+            batchExecutor.execute(() -> complete(dependency, enforcedRepositories, future));
+        }
+        return results;
+    }
+
+    // Only completed resolutions are cached, and before the future leaves inFlight, so later callers find one or the other.
+    private void complete(final Dependency dependency, final List<RepositoryEnquirer> enforcedRepositories, final CompletableFuture<Optional<ResolutionResult>> future) {
+        try {
+            final ResolutionResult cached = cachedResults.get(dependency);
+            final ResolutionResult result = cached != null ? cached : attemptResolve(dependency, enforcedRepositories);
+            if (result != null) {
+                cachedResults.put(dependency, result);
+            }
+            future.complete(Optional.ofNullable(result));
+        } catch (final Throwable throwable) {
+            future.completeExceptionally(throwable);
+        } finally {
+            inFlight.remove(dependency, future);
+        }
+    }
+
+    private static Optional<ResolutionResult> await(final CompletableFuture<Optional<ResolutionResult>> future) {
+        try {
+            return future.join();
+        } catch (final CompletionException exception) {
+            final Throwable cause = exception.getCause();
+            if (cause instanceof RuntimeException runtimeException) throw runtimeException;
+            if (cause instanceof Error error) throw error;
+            throw exception;
+        }
+    }
 
     private ResolutionResult attemptResolve(
         final Dependency dependency,
@@ -72,10 +178,19 @@ public final class CachingDependencyResolver implements DependencyResolver {
         if (preResolvedResult != null) {
             if (preResolvedResult.isChecked()) return preResolvedResult;
             if (preResolvedResult.isAggregator()) return preResolvedResult;
+        }
+
+        final var storedResult = enforcedRepositories.isEmpty() ? lookupStored(dependency) : null;
+        if (storedResult != null) {
+            LOGGER.debug("Resolved %s @ %s from resolution store", dependency.artifactId(), storedResult.getDependencyURL());
+            return storedResult;
+        }
 
+        if (preResolvedResult != null) {
             final var preResolvedUrl = preResolvedResult.getRepository().url().toString();
-            final var isDependencyValid = (enforcedRepositories.isEmpty() || enforcedRepositories.stream().anyMatch(repo -> repo.toString().equals(preResolvedUrl))) && urlPinger.ping(preResolvedResult.getDependencyURL());
-            final var isChecksumValid = preResolvedResult.getChecksumURL() == null || urlPinger.ping(preResolvedResult.getChecksumURL());
+            final var isDependencyValid = (enforcedRepositories.isEmpty() || enforcedRepositories.stream().anyMatch(repo -> repo.toString().equals(preResolvedUrl))) && urlPinger.status(preResolvedResult.getDependencyURL(), preResolvedResult.getRepository()) == URLPinger.Status.FOUND;
+            // An inline checksum was captured at build time, so the remote checksum file is never needed.
+            final var isChecksumValid = preResolvedResult.getChecksum() != null || preResolvedResult.getChecksumURL() == null || urlPinger.status(preResolvedResult.getChecksumURL(), preResolvedResult.getRepository()) == URLPinger.Status.FOUND;
 
             if (isDependencyValid && isChecksumValid) {
                 preResolvedResult.setChecked();
@@ -83,16 +198,69 @@ public final class CachingDependencyResolver implements DependencyResolver {
             }
         }
 
-        final var usedRepositories = enforcedRepositories.isEmpty() ? repositories : enforcedRepositories;
-        final var result = usedRepositories.stream().parallel()
-                .map(repositoryEnquirer -> repositoryEnquirer.enquire(dependency))
-                .filter(Objects::nonNull)
-                .findFirst();
+        final var usedRepositories = enforcedRepositories.isEmpty() ? candidateRepositories(dependency) : enforcedRepositories;
+        if (usedRepositories.isEmpty()) {
+            LOGGER.log("No repository may contain %s, check the repository group filters", dependency);
+            return null;
+        }
+        if (enforcedRepositories.isEmpty() && isKnownUnresolvable(dependency, usedRepositories)) {
+            LOGGER.debug("Skipping enquiry for %s, it could not be resolved recently", dependency);
+            return null;
+        }
+        final Optional<ResolutionResult> result;
+        try {
+            result = Optional.ofNullable(repositoryScheduler.enquire(dependency, usedRepositories));
+        } catch (final RepositoryUnavailableException exception) {
+            // Not remembered as a failure, the next enquiry may well succeed.
+            LOGGER.log("Resolved %s @ %s (%s)", dependency.artifactId(), FAILED_RESOLUTION_MESSAGE, exception.getMessage());
+            return null;
+        }
         final var resolvedResult = result.map(ResolutionResult::getDependencyURL)
                 .map(Objects::toString)
                 .orElse(FAILED_RESOLUTION_MESSAGE);
 
         LOGGER.log("Resolved %s @ %s", dependency.artifactId(), resolvedResult);
+        if (enforcedRepositories.isEmpty()) {
+            if (result.isPresent()) {
+                failedResolutions.remove(dependency);
+            } else {
+                failedResolutions.put(dependency, System.currentTimeMillis());
+            }
+            if (resolutionStore != null) {
+                result.ifPresentOrElse(resolved -> resolutionStore.record(dependency, resolved), () -> resolutionStore.recordFailure(dependency, repositoriesOf(usedRepositories)));
+            }
+        }
         return result.orElse(null);
     }
+
+    // The store may hold failures recorded by applications with other repositories, those only count if they cover every candidate.
+    private boolean isKnownUnresolvable(final Dependency dependency, final List<RepositoryEnquirer> candidates) {
+        final Long failedAt = failedResolutions.get(dependency);
+        if (failedAt != null && (negativeTtl == null || System.currentTimeMillis() - failedAt <= negativeTtl.toMillis())) {
+            return true;
+        }
+        return resolutionStore != null && resolutionStore.isUnresolvable(dependency, repositoriesOf(candidates));
+    }
+
+    private List<Repository> repositoriesOf(final List<RepositoryEnquirer> enquirers) {
+        return enquirers.stream().map(repositories::get).toList();
+    }
+
+    // Entries pointing at a repository that is no longer configured, or no longer allowed to host the dependency, are ignored.
+    private ResolutionResult lookupStored(final Dependency dependency) {
+        if (resolutionStore == null) return null;
+        final var stored = resolutionStore.lookup(dependency);
+        if (stored == null) return null;
+        final var storedUrl = stored.getRepository().url().toString();
+        final var stillAvailable = repositories.values().stream()
+                .anyMatch(repository -> repository.url().toString().equals(storedUrl) && repository.mayContain(dependency));
+        return stillAvailable ? stored : null;
+    }
+
+    private List<RepositoryEnquirer> candidateRepositories(final Dependency dependency) {
+        return repositories.entrySet().stream()
+                .filter(entry -> entry.getValue().mayContain(dependency))
+                .map(Map.Entry::getKey)
+                .toList();
+    }
 }
@@ -27,19 +27,50 @@ package io.github.slimjar.resolver;
 import io.github.slimjar.resolver.data.Repository;
 import io.github.slimjar.resolver.enquirer.RepositoryEnquirerFactory;
 import io.github.slimjar.resolver.pinger.URLPinger;
+import io.github.slimjar.util.Concurrency;
 
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.Executor;
 
 public final class CachingDependencyResolverFactory implements DependencyResolverFactory {
     private final URLPinger urlPinger;
+    private final RepositoryScheduler repositoryScheduler;
+    private final ResolutionStore resolutionStore;
+    private final Duration negativeTtl;
 
     public CachingDependencyResolverFactory(final URLPinger urlPinger) {
+        this(urlPinger, Concurrency.defaultExecutor());
+    }
+
+    public CachingDependencyResolverFactory(final URLPinger urlPinger, final Executor executor) {
+        this(urlPinger, executor, null);
+    }
+
+    public CachingDependencyResolverFactory(final URLPinger urlPinger, final Executor executor, final ResolutionStore resolutionStore) {
+        this(urlPinger, new RepositoryScheduler(executor), resolutionStore);
+    }
+
+    /**
+     * @param repositoryScheduler Shared by every resolver created here, so repository statistics carry over between them
+     */
+    public CachingDependencyResolverFactory(final URLPinger urlPinger, final RepositoryScheduler repositoryScheduler, final ResolutionStore resolutionStore) {
+        this(urlPinger, repositoryScheduler, resolutionStore, resolutionStore != null ? resolutionStore.getNegativeTtl() : ResolutionStore.DEFAULT_NEGATIVE_TTL);
+    }
+
+    /**
+     * @param negativeTtl How long resolvers remember failed resolutions, also when there is no resolution store
+     */
+    public CachingDependencyResolverFactory(final URLPinger urlPinger, final RepositoryScheduler repositoryScheduler, final ResolutionStore resolutionStore, final Duration negativeTtl) {
         this.urlPinger = urlPinger;
+        this.repositoryScheduler = repositoryScheduler;
+        this.resolutionStore = resolutionStore;
+        this.negativeTtl = negativeTtl;
     }
 
     @Override
     public DependencyResolver create(final Collection<Repository> repositories, final Map<String, ResolutionResult> preResolvedResults, final RepositoryEnquirerFactory enquirerFactory) {
-        return new CachingDependencyResolver(urlPinger, repositories, enquirerFactory, preResolvedResults);
+        return new CachingDependencyResolver(urlPinger, repositories, enquirerFactory, preResolvedResults, repositoryScheduler, resolutionStore, negativeTtl);
     }
 }
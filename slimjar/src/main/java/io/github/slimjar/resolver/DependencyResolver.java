@@ -27,9 +27,30 @@ package io.github.slimjar.resolver;
 
 import io.github.slimjar.resolver.data.Dependency;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 @FunctionalInterface
 public interface DependencyResolver {
     Optional<ResolutionResult> resolve(final Dependency dependency);
+
+    /**
+     * Resolves many dependencies at once, leaving implementations free to batch, prioritize or pipeline them.
+     * The default implementation resolves them one after another on the calling thread.
+     * @return Future resolution of every dependency, in the order they were given
+     */
+    default Map<Dependency, CompletableFuture<Optional<ResolutionResult>>> resolveAll(final Collection<Dependency> dependencies) {
+        final Map<Dependency, CompletableFuture<Optional<ResolutionResult>>> results = new LinkedHashMap<>();
+        for (final Dependency dependency : dependencies) {
+            try {
+                results.putIfAbsent(dependency, CompletableFuture.completedFuture(resolve(dependency)));
+            } catch (final RuntimeException exception) {
+                results.putIfAbsent(dependency, CompletableFuture.failedFuture(exception));
+            }
+        }
+        return results;
+    }
 }
@@ -0,0 +1,252 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.resolver;
+
+import io.github.slimjar.logging.LogDispatcher;
+import io.github.slimjar.logging.ProcessLogger;
+import io.github.slimjar.resolver.data.Dependency;
+import io.github.slimjar.resolver.enquirer.RepositoryEnquirer;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Enquires repositories in order of their observed latency and failure rate instead of all at once.
+ * The best ranked repository is asked first. If it has not answered within the hedge delay the next one is asked as well,
+ * and whichever finds the dependency first wins while the remaining enquiries are cancelled and their answers discarded.
+ * Cancelling interrupts them, which does not abort a blocking {@link java.net.HttpURLConnection} read,
+ * so a losing enquiry stuck in one keeps its executor thread until the connection's read timeout passes.
+ * A repository that does not have the dependency hands over to the next one immediately.
+ * With a resolution deadline, counted from the first enquiry, enquiries still unanswered when it passes fail with a {@link ResolutionDeadlineExceededException},
+ * as does every enquiry made afterwards.
+ * Null is only returned when every repository answered that it does not have the dependency, otherwise the enquiry fails
+ * with a {@link RepositoryUnavailableException}.
+ */
+public final class RepositoryScheduler {
+    private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
+    public static final Duration DEFAULT_HEDGE_DELAY = Duration.ofMillis(250);
+    private static final long MIN_HEDGE_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(20);
+    // Weight of the newest sample in the moving averages.
+    private static final double SMOOTHING = 0.3;
+    // A repository that always fails ranks as if it were this many times slower.
+    private static final double FAILURE_PENALTY = 8;
+    private final Executor executor;
+    private final long hedgeDelayNanos;
+    private final Duration resolutionBudget;
+    // Started by the first enquiry rather than on construction, the scheduler is usually created long before it is needed.
+    private long deadlineNanos;
+    private boolean deadlineStarted;
+    private final Map<RepositoryEnquirer, Statistics> statistics = new ConcurrentHashMap<>();
+
+    public RepositoryScheduler(final Executor executor) {
+        this(executor, DEFAULT_HEDGE_DELAY);
+    }
+
+    /**
+     * @param hedgeDelay Longest time to wait on a repository before asking the next one too,
+     *                   shortened to twice the repository's average latency once that is known
+     */
+    public RepositoryScheduler(final Executor executor, final Duration hedgeDelay) {
+        this(executor, hedgeDelay, null);
+    }
+
+    /**
+     * @param resolutionBudget Time from the first enquiry after which enquiries fail instead of waiting on repositories, null for no deadline
+     */
+    public RepositoryScheduler(final Executor executor, final Duration hedgeDelay, final Duration resolutionBudget) {
+        this.executor = executor;
+        this.hedgeDelayNanos = hedgeDelay.toNanos();
+        this.resolutionBudget = resolutionBudget;
+    }
+
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    public ResolutionResult enquire(final Dependency dependency, final Collection<RepositoryEnquirer> enquirers) {
+        final long remainingNanos = remainingNanos();
+        final List<RepositoryEnquirer> ranked = rank(enquirers);
+        if (ranked.isEmpty()) return null;
+        if (remainingNanos <= 0) {
+            throw deadlineExceeded(dependency, ranked);
+        }
+        // Without a deadline a single repository can be asked on the calling thread.
+        if (ranked.size() == 1 && resolutionBudget == null) return attempt(ranked.get(0), dependency);
+
+        final BlockingQueue<Attempt> completed = new LinkedBlockingQueue<>();
+        final List<FutureTask<ResolutionResult>> launched = new ArrayList<>();
+        int next = 0;
+        int pending = 0;
+        boolean indefinite = false;
+        try {
+            launch(ranked.get(next++), dependency, launched, completed);
+            pending++;
+            while (true) {
+                final Attempt attempt = completed.poll(Math.min(hedgeDelay(ranked.get(next - 1)), remainingNanos()), TimeUnit.NANOSECONDS);
+                if (attempt == null) {
+                    if (remainingNanos() <= 0) {
+                        throw deadlineExceeded(dependency, unanswered(ranked, launched));
+                    }
+                    if (next < ranked.size()) {
+                        LOGGER.debug("Hedging enquiry for %s", dependency.artifactId());
+                        launch(ranked.get(next++), dependency, launched, completed);
+                        pending++;
+                    } else {
+                        // Every repository has been asked. Run whatever the executor has not started yet ourselves,
+                        // so a saturated executor can never leave this waiting forever.
+                        launched.forEach(FutureTask::run);
+                    }
+                    continue;
+                }
+                pending--;
+                if (attempt.result() != null) return attempt.result();
+                indefinite |= attempt.failure() != null;
+                if (next < ranked.size()) {
+                    launch(ranked.get(next++), dependency, launched, completed);
+                    pending++;
+                } else if (pending == 0) {
+                    if (indefinite) {
+                        throw new RepositoryUnavailableException(String.format("Not every repository could be reached while resolving %s", dependency));
+                    }
+                    return null;
+                }
+            }
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new RepositoryUnavailableException(String.format("Interrupted while resolving %s", dependency), exception);
+        } finally {
+            launched.forEach(task -> task.cancel(true));
+        }
+    }
+
+    private long remainingNanos() {
+        return resolutionBudget == null ? Long.MAX_VALUE : deadlineNanos() - System.nanoTime();
+    }
+
+    private synchronized long deadlineNanos() {
+        if (!deadlineStarted) {
+            deadlineNanos = System.nanoTime() + resolutionBudget.toNanos();
+            deadlineStarted = true;
+        }
+        return deadlineNanos;
+    }
+
+    // Tasks are launched in ranking order, so the first launched.size() enquirers have been asked.
+    private static List<RepositoryEnquirer> unanswered(final List<RepositoryEnquirer> ranked, final List<FutureTask<ResolutionResult>> launched) {
+        final List<RepositoryEnquirer> unanswered = new ArrayList<>();
+        for (int index = 0; index < ranked.size(); index++) {
+            if (index >= launched.size() || !launched.get(index).isDone()) {
+                unanswered.add(ranked.get(index));
+            }
+        }
+        return unanswered;
+    }
+
+    private ResolutionDeadlineExceededException deadlineExceeded(final Dependency dependency, final List<RepositoryEnquirer> unanswered) {
+        return new ResolutionDeadlineExceededException(dependency, resolutionBudget, unanswered.stream().map(Object::toString).toList());
+    }
+
+    /**
+     * @return Enquirers ordered from most to least promising, repositories without history keep their relative order and go first
+     */
+    public List<RepositoryEnquirer> rank(final Collection<RepositoryEnquirer> enquirers) {
+        return enquirers.stream()
+                .sorted(Comparator.comparingDouble(this::score))
+                .toList();
+    }
+
+    private double score(final RepositoryEnquirer enquirer) {
+        final Statistics stats = statistics.get(enquirer);
+        if (stats == null) return 0;
+        return stats.latencyNanos() * (1 + FAILURE_PENALTY * stats.failureRate());
+    }
+
+    private long hedgeDelay(final RepositoryEnquirer enquirer) {
+        final Statistics stats = statistics.get(enquirer);
+        if (stats == null) return hedgeDelayNanos;
+        return Math.min(hedgeDelayNanos, Math.max(MIN_HEDGE_DELAY_NANOS, (long) (stats.latencyNanos() * 2)));
+    }
+
+    private void launch(final RepositoryEnquirer enquirer, final Dependency dependency, final List<FutureTask<ResolutionResult>> launched, final BlockingQueue<Attempt> completed) {
+        final FutureTask<ResolutionResult> task = new FutureTask<>(() -> attempt(enquirer, dependency)) {
+            @Override
+            protected void done() {
+                if (isCancelled()) return;
+                try {
+                    completed.add(new Attempt(get(), null));
+                } catch (final Exception exception) {
+                    completed.add(new Attempt(null, exception));
+                }
+            }
+        };
+        launched.add(task);
+        executor.execute(task);
+    }
+
+    private ResolutionResult attempt(final RepositoryEnquirer enquirer, final Dependency dependency) {
+        final long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            final ResolutionResult result = enquirer.enquire(dependency);
+            failed = false;
+            return result;
+        } catch (final RepositoryUnavailableException exception) {
+            throw exception;
+        } catch (final RuntimeException exception) {
+            throw new RepositoryUnavailableException(String.format("Enquiring %s failed while resolving %s", enquirer, dependency), exception);
+        } finally {
+            // Cancelled losers are recorded too, their elapsed time is a lower bound that still pushes them down the ranking.
+            record(enquirer, System.nanoTime() - start, failed);
+        }
+    }
+
+    private void record(final RepositoryEnquirer enquirer, final long latencyNanos, final boolean failed) {
+        statistics.merge(
+            enquirer,
+            new Statistics(latencyNanos, failed ? 1 : 0),
+            (previous, sample) -> new Statistics(
+                previous.latencyNanos() + SMOOTHING * (sample.latencyNanos() - previous.latencyNanos()),
+                previous.failureRate() + SMOOTHING * (sample.failureRate() - previous.failureRate())
+            )
+        );
+    }
+
+    private record Statistics(double latencyNanos, double failureRate) {
+    }
+
+    // A failure means the repository gave no definite answer.
+    private record Attempt(ResolutionResult result, Exception failure) {
+    }
+}
@@ -0,0 +1,58 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.resolver;
+
+import io.github.slimjar.resolver.data.Dependency;
+
+import java.time.Duration;
+import java.util.List;
+
+public final class ResolutionDeadlineExceededException extends RuntimeException {
+
+    private final transient Dependency dependency;
+    private final List<String> unansweredRepositories;
+
+    public ResolutionDeadlineExceededException(final Dependency dependency, final Duration budget, final List<String> unansweredRepositories) {
+        super(String.format(
+            "Resolution deadline of %d ms exceeded while resolving %s, no answer from: %s",
+            budget.toMillis(),
+            dependency,
+            unansweredRepositories.isEmpty() ? "-" : String.join(", ", unansweredRepositories)
+        ));
+        this.dependency = dependency;
+        this.unansweredRepositories = List.copyOf(unansweredRepositories);
+    }
+
+    public Dependency getDependency() {
+        return dependency;
+    }
+
+    /**
+     * @return Repositories that were still being enquired, or not asked yet, when the deadline passed
+     */
+    public List<String> getUnansweredRepositories() {
+        return unansweredRepositories;
+    }
+}
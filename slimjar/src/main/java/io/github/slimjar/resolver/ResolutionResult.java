@@ -34,6 +34,8 @@ public final class ResolutionResult {
     private final URL dependencyURL;
     private final URL checksumURL;
     private final boolean isAggregator;
+    // Expected digest captured at build time, lets the runtime verifier skip fetching the checksum file.
+    private final String checksum;
     private transient boolean checked;
 
     public ResolutionResult(
@@ -42,12 +44,24 @@ public final class ResolutionResult {
             final URL checksumURL,
             final boolean isAggregator,
             final boolean checked
+    ) {
+        this(repository, dependencyURL, checksumURL, isAggregator, checked, null);
+    }
+
+    public ResolutionResult(
+            final Repository repository,
+            final URL dependencyURL,
+            final URL checksumURL,
+            final boolean isAggregator,
+            final boolean checked,
+            final String checksum
     ) {
         this.repository = repository;
         this.dependencyURL = dependencyURL;
         this.checksumURL = checksumURL;
         this.isAggregator = isAggregator;
         this.checked = checked;
+        this.checksum = checksum;
 
         if (!isAggregator) {
             Objects.requireNonNull(dependencyURL, "Resolved URL must not be null for non-aggregator dependencies");
@@ -66,6 +80,14 @@ public final class ResolutionResult {
         return checksumURL;
     }
 
+    public String getChecksum() {
+        return checksum;
+    }
+
+    public ResolutionResult withChecksum(final String checksum) {
+        return new ResolutionResult(repository, dependencyURL, checksumURL, isAggregator, checked, checksum);
+    }
+
     public boolean isAggregator() {
         return isAggregator;
     }
@@ -87,11 +109,12 @@ public final class ResolutionResult {
         return dependencyURL.toString().equals(that.toString()) &&
                 Objects.equals(checksumURL.toString(), that.checksumURL.toString()) &&
                 isAggregator == that.isAggregator &&
+                Objects.equals(checksum, that.checksum) &&
                 checked == that.checked;
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(dependencyURL.toString(), checksumURL.toString(), isAggregator, checked);
+        return Objects.hash(dependencyURL.toString(), checksumURL.toString(), isAggregator, checksum, checked);
     }
 }
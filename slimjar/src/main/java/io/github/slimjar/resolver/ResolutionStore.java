@@ -0,0 +1,272 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.resolver;
+
+import io.github.slimjar.logging.LogDispatcher;
+import io.github.slimjar.logging.ProcessLogger;
+import io.github.slimjar.resolver.data.Dependency;
+import io.github.slimjar.resolver.data.Repository;
+import io.github.slimjar.util.FileLocks;
+
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent record of where dependencies were resolved, so later starts can skip the repository enquiries.
+ * Entries expire after the release or snapshot TTL, since snapshots are republished far more often.
+ * Dependencies no repository could provide are recorded as well, together with the repositories that were asked, and expire after the negative TTL,
+ * so optional or unpublished coordinates are enquired about once per TTL window instead of on every start.
+ * Such a failure only applies to enquiries limited to those repositories, the store may be shared by applications configuring others.
+ * Stored as an append-only, tab separated text file where later lines win. It is compacted when loaded.
+ */
+public final class ResolutionStore {
+    private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
+    private static final String SEPARATOR = "\t";
+    private static final int COMPACTION_SLACK = 128;
+    public static final Duration DEFAULT_RELEASE_TTL = Duration.ofDays(7);
+    public static final Duration DEFAULT_SNAPSHOT_TTL = Duration.ofHours(1);
+    public static final Duration DEFAULT_NEGATIVE_TTL = Duration.ofHours(1);
+    private final Path storeFile;
+    private final Duration releaseTtl;
+    private final Duration snapshotTtl;
+    private final Duration negativeTtl;
+    private final Map<String, Entry> entries;
+
+    private ResolutionStore(final Path storeFile, final Duration releaseTtl, final Duration snapshotTtl, final Duration negativeTtl, final Map<String, Entry> entries) {
+        this.storeFile = storeFile;
+        this.releaseTtl = releaseTtl;
+        this.snapshotTtl = snapshotTtl;
+        this.negativeTtl = negativeTtl;
+        this.entries = entries;
+    }
+
+    public static ResolutionStore load(final Path storeFile) throws IOException, InterruptedException {
+        return load(storeFile, DEFAULT_RELEASE_TTL, DEFAULT_SNAPSHOT_TTL);
+    }
+
+    /**
+     * @param releaseTtl How long resolutions of release artifacts are trusted, null to trust them indefinitely
+     * @param snapshotTtl How long resolutions of snapshot artifacts are trusted, null to trust them indefinitely
+     */
+    public static ResolutionStore load(final Path storeFile, final Duration releaseTtl, final Duration snapshotTtl) throws IOException, InterruptedException {
+        return load(storeFile, releaseTtl, snapshotTtl, DEFAULT_NEGATIVE_TTL);
+    }
+
+    /**
+     * @param releaseTtl How long resolutions of release artifacts are trusted, null to trust them indefinitely
+     * @param snapshotTtl How long resolutions of snapshot artifacts are trusted, null to trust them indefinitely
+     * @param negativeTtl How long a failed resolution is remembered, null to remember it indefinitely
+     */
+    public static ResolutionStore load(final Path storeFile, final Duration releaseTtl, final Duration snapshotTtl, final Duration negativeTtl) throws IOException, InterruptedException {
+        final Map<String, Entry> entries = new ConcurrentHashMap<>();
+        if (!Files.exists(storeFile)) {
+            return new ResolutionStore(storeFile, releaseTtl, snapshotTtl, negativeTtl, entries);
+        }
+        return FileLocks.withLock(storeFile.toFile(), () -> {
+            final List<String> lines = Files.readAllLines(storeFile, StandardCharsets.UTF_8);
+            for (final String line : lines) {
+                final Entry entry = Entry.parse(line);
+                if (entry != null) {
+                    entries.put(entry.coordinates(), entry);
+                }
+            }
+            final long now = System.currentTimeMillis();
+            entries.values().removeIf(entry -> isExpired(entry, ttlOf(entry, releaseTtl, snapshotTtl, negativeTtl), now));
+            if (lines.size() > entries.size() * 2 + COMPACTION_SLACK) {
+                compact(storeFile, entries);
+            }
+            return new ResolutionStore(storeFile, releaseTtl, snapshotTtl, negativeTtl, entries);
+        });
+    }
+
+    /**
+     * @return Stored resolution if it has not expired yet, otherwise null
+     */
+    public ResolutionResult lookup(final Dependency dependency) {
+        final Entry entry = entries.get(dependency.toString());
+        if (entry == null || entry.failure() || isExpired(entry, isSnapshot(dependency) ? snapshotTtl : releaseTtl, System.currentTimeMillis())) {
+            return null;
+        }
+        try {
+            return entry.toResult();
+        } catch (final MalformedURLException exception) {
+            entries.remove(entry.coordinates(), entry);
+            return null;
+        }
+    }
+
+    /**
+     * @param repositories Repositories that would be enquired about <code>dependency</code>
+     * @return Whether every one of <code>repositories</code> answered that it does not have <code>dependency</code> within the negative TTL
+     */
+    public boolean isUnresolvable(final Dependency dependency, final Collection<Repository> repositories) {
+        final Entry entry = entries.get(dependency.toString());
+        if (entry == null || !entry.failure() || isExpired(entry, negativeTtl, System.currentTimeMillis())) return false;
+        final Set<String> missingFrom = entry.missingRepositories();
+        return repositories.stream().allMatch(repository -> missingFrom.contains(repository.url().toString()));
+    }
+
+    public Duration getNegativeTtl() {
+        return negativeTtl;
+    }
+
+    public void record(final Dependency dependency, final ResolutionResult result) {
+        append(dependency, Entry.of(dependency.toString(), isSnapshot(dependency), result, System.currentTimeMillis()));
+    }
+
+    /**
+     * Remembers that none of <code>repositories</code> could provide <code>dependency</code>, until the negative TTL passes or it is resolved after all.
+     * Repositories of a failure recorded earlier within the negative TTL are kept as well.
+     */
+    public void recordFailure(final Dependency dependency, final Collection<Repository> repositories) {
+        final long now = System.currentTimeMillis();
+        final Set<String> missingFrom = new TreeSet<>();
+        repositories.forEach(repository -> missingFrom.add(repository.url().toString()));
+        final Entry previous = entries.get(dependency.toString());
+        if (previous != null && previous.failure() && !isExpired(previous, negativeTtl, now)) {
+            missingFrom.addAll(previous.missingRepositories());
+        }
+        append(dependency, Entry.failure(dependency.toString(), isSnapshot(dependency), missingFrom, now));
+    }
+
+    private void append(final Dependency dependency, final Entry entry) {
+        entries.put(entry.coordinates(), entry);
+        try {
+            Files.createDirectories(storeFile.getParent());
+            // A single small append per entry, concurrent writers at worst interleave whole lines.
+            Files.write(storeFile, (entry.format() + System.lineSeparator()).getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (final IOException exception) {
+            LOGGER.debug("Could not persist resolution of %s: %s", dependency.artifactId(), exception.getMessage());
+        }
+    }
+
+    public static boolean isSnapshot(final Dependency dependency) {
+        return dependency.snapshotId() != null || dependency.version().endsWith("-SNAPSHOT");
+    }
+
+    private static Duration ttlOf(final Entry entry, final Duration releaseTtl, final Duration snapshotTtl, final Duration negativeTtl) {
+        if (entry.failure()) return negativeTtl;
+        return entry.snapshot() ? snapshotTtl : releaseTtl;
+    }
+
+    private static boolean isExpired(final Entry entry, final Duration ttl, final long now) {
+        return ttl != null && now - entry.resolvedAt() > ttl.toMillis();
+    }
+
+    private static void compact(final Path storeFile, final Map<String, Entry> entries) throws IOException {
+        final Path temporary = storeFile.resolveSibling(storeFile.getFileName() + ".tmp");
+        final StringBuilder content = new StringBuilder();
+        for (final Entry entry : entries.values()) {
+            content.append(entry.format()).append(System.lineSeparator());
+        }
+        Files.write(temporary, content.toString().getBytes(StandardCharsets.UTF_8));
+        try {
+            Files.move(temporary, storeFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (final AtomicMoveNotSupportedException exception) {
+            Files.move(temporary, storeFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // missingFrom lists the repositories of a failure, separated by spaces.
+    private record Entry(String coordinates, boolean snapshot, String repository, String dependencyURL, String checksumURL, boolean aggregator, String checksum, long resolvedAt, String missingFrom) {
+        private static Entry of(final String coordinates, final boolean snapshot, final ResolutionResult result, final long resolvedAt) {
+            return new Entry(
+                coordinates,
+                snapshot,
+                result.getRepository().url().toString(),
+                toField(result.getDependencyURL()),
+                toField(result.getChecksumURL()),
+                result.isAggregator(),
+                result.getChecksum() == null ? "" : result.getChecksum(),
+                resolvedAt,
+                ""
+            );
+        }
+
+        // Failures are stored without a repository.
+        private static Entry failure(final String coordinates, final boolean snapshot, final Set<String> missingFrom, final long resolvedAt) {
+            return new Entry(coordinates, snapshot, "", "", "", false, "", resolvedAt, String.join(" ", missingFrom));
+        }
+
+        private boolean failure() {
+            return repository.isEmpty();
+        }
+
+        private Set<String> missingRepositories() {
+            return missingFrom.isEmpty() ? Collections.emptySet() : Set.copyOf(Arrays.asList(missingFrom.split(" ")));
+        }
+
+        private ResolutionResult toResult() throws MalformedURLException {
+            return new ResolutionResult(
+                new Repository(new URL(repository)),
+                toURL(dependencyURL),
+                toURL(checksumURL),
+                aggregator,
+                true,
+                checksum.isEmpty() ? null : checksum
+            );
+        }
+
+        private String format() {
+            return String.join(SEPARATOR, coordinates, Boolean.toString(snapshot), repository, dependencyURL, checksumURL, Boolean.toString(aggregator), checksum, Long.toString(resolvedAt), missingFrom);
+        }
+
+        private static Entry parse(final String line) {
+            // Keep trailing empty fields, absent URLs and checksums are stored as empty strings.
+            // Lines written before failures recorded their repositories lack the last field, such failures never match.
+            final String[] parts = line.split(SEPARATOR, -1);
+            if (parts.length != 8 && parts.length != 9) return null;
+            try {
+                return new Entry(parts[0], Boolean.parseBoolean(parts[1]), parts[2], parts[3], parts[4], Boolean.parseBoolean(parts[5]), parts[6], Long.parseLong(parts[7]), parts.length == 9 ? parts[8] : "");
+            } catch (final NumberFormatException exception) {
+                return null;
+            }
+        }
+
+        private static String toField(final URL url) {
+            return url == null ? "" : url.toString();
+        }
+
+        private static URL toURL(final String field) throws MalformedURLException {
+            return field.isEmpty() ? null : new URL(field);
+        }
+    }
+}
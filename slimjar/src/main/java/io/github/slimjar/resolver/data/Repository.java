@@ -26,22 +26,74 @@ package io.github.slimjar.resolver.data;
 
 import java.io.IOException;
 import java.net.URL;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 public final class Repository {
     public static final String CENTRAL_URL = "https://repo1.maven.org/maven2/";
+    private static final Map<String, Pattern> GROUP_PATTERNS = new ConcurrentHashMap<>();
 
     private static Repository centralInstance;
     private URL url;
+    // Group patterns limiting what is looked up here, absent in descriptors written by older plugin versions.
+    private Collection<String> includeGroups;
+    private Collection<String> excludeGroups;
 
     public Repository(URL url) {
+        this(url, Collections.emptyList(), Collections.emptyList());
+    }
+
+    /**
+     * @param includeGroups Only groups matching one of these patterns are looked up here, all groups if empty
+     * @param excludeGroups Groups matching one of these patterns are never looked up here
+     */
+    public Repository(URL url, Collection<String> includeGroups, Collection<String> excludeGroups) {
         this.url = url;
+        this.includeGroups = includeGroups;
+        this.excludeGroups = excludeGroups;
     }
 
     public URL url() {
         return url;
     }
 
+    public Collection<String> includeGroups() {
+        return includeGroups == null ? Collections.emptyList() : includeGroups;
+    }
+
+    public Collection<String> excludeGroups() {
+        return excludeGroups == null ? Collections.emptyList() : excludeGroups;
+    }
+
+    /**
+     * Checks the dependency's group against the include and exclude patterns, where <code>*</code> matches any characters.
+     * @return Whether this repository may host the dependency at all
+     */
+    public boolean mayContain(final Dependency dependency) {
+        final String groupId = dependency.groupId();
+        if (!includeGroups().isEmpty() && includeGroups().stream().noneMatch(pattern -> matches(pattern, groupId))) {
+            return false;
+        }
+        return excludeGroups().stream().noneMatch(pattern -> matches(pattern, groupId));
+    }
+
+    private static boolean matches(final String pattern, final String groupId) {
+        if (pattern.indexOf('*') < 0) return pattern.equals(groupId);
+        return GROUP_PATTERNS.computeIfAbsent(pattern, Repository::compile).matcher(groupId).matches();
+    }
+
+    private static Pattern compile(final String pattern) {
+        return Pattern.compile(Arrays.stream(pattern.split("\\*", -1))
+                .map(Pattern::quote)
+                .collect(Collectors.joining(".*")));
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
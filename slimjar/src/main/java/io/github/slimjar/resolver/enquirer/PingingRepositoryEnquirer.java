@@ -26,49 +26,87 @@ package io.github.slimjar.resolver.enquirer;
 
 import io.github.slimjar.logging.LogDispatcher;
 import io.github.slimjar.logging.ProcessLogger;
+import io.github.slimjar.resolver.RepositoryUnavailableException;
 import io.github.slimjar.resolver.ResolutionResult;
 import io.github.slimjar.resolver.data.Dependency;
 import io.github.slimjar.resolver.data.Repository;
 import io.github.slimjar.resolver.strategy.PathResolutionStrategy;
 import io.github.slimjar.resolver.pinger.URLPinger;
+import io.github.slimjar.util.Concurrency;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 public record PingingRepositoryEnquirer(
     Repository repository,
     PathResolutionStrategy dependencyURLCreationStrategy,
     PathResolutionStrategy checksumURLCreationStrategy,
     PathResolutionStrategy pomURLCreationStrategy,
-    URLPinger urlPinger
-
+    URLPinger urlPinger,
+    Executor executor
 ) implements RepositoryEnquirer {
     private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
 
+    public PingingRepositoryEnquirer(
+        final Repository repository,
+        final PathResolutionStrategy dependencyURLCreationStrategy,
+        final PathResolutionStrategy checksumURLCreationStrategy,
+        final PathResolutionStrategy pomURLCreationStrategy,
+        final URLPinger urlPinger
+    ) {
+        this(repository, dependencyURLCreationStrategy, checksumURLCreationStrategy, pomURLCreationStrategy, urlPinger, Concurrency.defaultExecutor());
+    }
+
+    /**
+     * @return The resolution, or null when the repository answered that it has neither the artifact nor its POM
+     * @throws RepositoryUnavailableException if nothing was found and the repository did not answer every ping
+     */
     @Override
     public ResolutionResult enquire(final Dependency dependency) {
         LOGGER.debug("Enquiring repositories to find %s", dependency.artifactId());
 
-        return dependencyURLCreationStrategy.pathTo(repository, dependency)
-                .stream()
+        final AtomicBoolean unavailable = new AtomicBoolean();
+        for (final String path : dependencyURLCreationStrategy.pathTo(repository, dependency)) {
+            final URL url = createURL(path);
+            if (url == null) continue;
+            final URLPinger.Status status = urlPinger.status(url, repository);
+            if (status == URLPinger.Status.FOUND) {
+                final var resolvedChecksum = firstReachable(checksumURLCreationStrategy.pathTo(repository, dependency), new AtomicBoolean());
+                return new ResolutionResult(repository, url, resolvedChecksum, false, true);
+            }
+            if (status == URLPinger.Status.UNAVAILABLE) unavailable.set(true);
+        }
+        // A missing artifact is only read as an aggregator when the repository definitely does not have the artifact.
+        if (unavailable.get()) throw unavailable(dependency);
+        final var resolvedPom = firstReachable(pomURLCreationStrategy.pathTo(repository, dependency), unavailable);
+        if (resolvedPom == null && unavailable.get()) throw unavailable(dependency);
+        return resolvedPom == null ? null : new ResolutionResult(repository, null, null, true, false);
+    }
+
+    private RepositoryUnavailableException unavailable(final Dependency dependency) {
+        return new RepositoryUnavailableException(String.format("%s could not be reached while resolving %s", repository.url(), dependency));
+    }
+
+    private URL firstReachable(final Collection<String> paths, final AtomicBoolean unavailable) {
+        final List<Supplier<URL>> pings = paths.stream()
                 .map(this::createURL)
-                .filter(urlPinger::ping)
-                .findFirst()
-                .map(url -> {
-                    final var resolvedChecksum = checksumURLCreationStrategy.pathTo(repository, dependency)
-                            .parallelStream()
-                            .map(this::createURL)
-                            .filter(urlPinger::ping)
-                            .findFirst()
-                            .orElse(null);
-                    return new ResolutionResult(repository, url, resolvedChecksum, false, true);
-                }).orElseGet(() -> pomURLCreationStrategy.pathTo(repository, dependency).parallelStream()
-                        .map(this::createURL)
-                        .filter(urlPinger::ping)
-                        .findFirst()
-                        .map(url -> new ResolutionResult(repository, null, null, true, false))
-                        .orElse(null)
-        );
+                .filter(Objects::nonNull)
+                .<Supplier<URL>>map(url -> () -> switch (urlPinger.status(url, repository)) {
+                    case FOUND -> url;
+                    case NOT_FOUND -> null;
+                    case UNAVAILABLE -> {
+                        unavailable.set(true);
+                        yield null;
+                    }
+                })
+                .toList();
+        return Concurrency.firstNonNull(executor, pings);
     }
 
     @Override
@@ -27,18 +27,27 @@ package io.github.slimjar.resolver.enquirer;
 import io.github.slimjar.resolver.data.Repository;
 import io.github.slimjar.resolver.pinger.URLPinger;
 import io.github.slimjar.resolver.strategy.PathResolutionStrategy;
+import io.github.slimjar.util.Concurrency;
+
+import java.util.concurrent.Executor;
 
 public final class PingingRepositoryEnquirerFactory implements RepositoryEnquirerFactory {
     private final PathResolutionStrategy pathResolutionStrategy;
     private final PathResolutionStrategy checksumURLCreationStrategy;
     private final PathResolutionStrategy pomURLCreationStrategy;
     private final URLPinger urlPinger;
+    private final Executor executor;
 
     public PingingRepositoryEnquirerFactory(final PathResolutionStrategy pathResolutionStrategy, final PathResolutionStrategy checksumURLCreationStrategy, final PathResolutionStrategy pomURLCreationStrategy, final URLPinger urlPinger) {
+        this(pathResolutionStrategy, checksumURLCreationStrategy, pomURLCreationStrategy, urlPinger, Concurrency.defaultExecutor());
+    }
+
+    public PingingRepositoryEnquirerFactory(final PathResolutionStrategy pathResolutionStrategy, final PathResolutionStrategy checksumURLCreationStrategy, final PathResolutionStrategy pomURLCreationStrategy, final URLPinger urlPinger, final Executor executor) {
         this.pathResolutionStrategy = pathResolutionStrategy;
         this.checksumURLCreationStrategy = checksumURLCreationStrategy;
         this.pomURLCreationStrategy = pomURLCreationStrategy;
         this.urlPinger = urlPinger;
+        this.executor = executor;
     }
 
     public PathResolutionStrategy getPathResolutionStrategy() {
@@ -55,6 +64,6 @@ public final class PingingRepositoryEnquirerFactory implements RepositoryEnquire
 
     @Override
     public RepositoryEnquirer create(final Repository repository) {
-        return new PingingRepositoryEnquirer(repository, pathResolutionStrategy, checksumURLCreationStrategy, pomURLCreationStrategy, urlPinger);
+        return new PingingRepositoryEnquirer(repository, pathResolutionStrategy, checksumURLCreationStrategy, pomURLCreationStrategy, urlPinger, executor);
     }
 }
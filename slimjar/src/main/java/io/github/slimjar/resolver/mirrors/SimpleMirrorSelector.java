@@ -40,9 +40,13 @@ public final class SimpleMirrorSelector implements MirrorSelector {
         final Collection<Repository> resolved = mainRepositories.stream()
                 .filter(repo -> !originals.contains(repo.url()))
                 .collect(Collectors.toSet());
+        // Mirrors inherit the group filters of the repository they replace.
         final Collection<Repository> mirrored = mirrors.stream()
-                .map(Mirror::mirroring)
-                .map(Repository::new)
+                .map(mirror -> mainRepositories.stream()
+                        .filter(repo -> repo.url().toString().equals(mirror.original().toString()))
+                        .findFirst()
+                        .map(repo -> new Repository(mirror.mirroring(), repo.includeGroups(), repo.excludeGroups()))
+                        .orElseGet(() -> new Repository(mirror.mirroring())))
                 .collect(Collectors.toSet());
         resolved.addAll(mirrored);
         return resolved;
@@ -26,47 +26,188 @@ package io.github.slimjar.resolver.pinger;
 
 import io.github.slimjar.logging.LogDispatcher;
 import io.github.slimjar.logging.ProcessLogger;
+import io.github.slimjar.resolver.data.Repository;
+import io.github.slimjar.util.CircuitBreaker;
+import io.github.slimjar.util.Connections;
+import io.github.slimjar.util.Repositories;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.net.URLConnection;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Checks whether an artifact exists with a HEAD request, so a successful ping never transfers the artifact itself.
+ * Connections are left open for the JDK keep-alive cache to reuse per host, and results are remembered per URL
+ * since the resolver and enquirers tend to ask about the same jar, checksum and POM URLs repeatedly.
+ * Only definite answers are cached, pings that failed with an exception are tried again next time.
+ * Repositories that keep failing or timing out are skipped for a while by the {@link CircuitBreaker},
+ * so a repository that is down costs a few timeouts instead of one per URL.
+ * Circuits are kept per repository base URL, so repositories sharing a host do not trip each other.
+ * URLs checked without their repository fall back to a circuit for the whole host.
+ */
 public final class HttpURLPinger implements URLPinger {
     private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
     private static final String SLIMJAR_USER_AGENT = "SlimjarApplication/* URL Validation Ping";
     private static final Collection<String> SUPPORTED_PROTOCOLS = Arrays.asList("HTTP", "HTTPS");
+    public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofSeconds(10);
+    public static final Duration DEFAULT_READ_TIMEOUT = Duration.ofSeconds(10);
+    private final Duration connectTimeout;
+    private final Duration readTimeout;
+    private final CircuitBreaker circuitBreaker;
+    private final Map<String, Boolean> results = new ConcurrentHashMap<>();
+
+    public HttpURLPinger() {
+        this(DEFAULT_CONNECT_TIMEOUT, DEFAULT_READ_TIMEOUT);
+    }
+
+    public HttpURLPinger(final Duration connectTimeout, final Duration readTimeout) {
+        this(connectTimeout, readTimeout, new CircuitBreaker());
+    }
+
+    /**
+     * @param circuitBreaker Tracks failures per repository, may be shared with other pingers
+     */
+    public HttpURLPinger(final Duration connectTimeout, final Duration readTimeout, final CircuitBreaker circuitBreaker) {
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+        this.circuitBreaker = circuitBreaker;
+    }
 
     @Override
     public boolean ping(final URL url) {
+        return status(url) == Status.FOUND;
+    }
+
+    @Override
+    public Status status(final URL url) {
+        return status(url, hostOf(url));
+    }
+
+    @Override
+    public Status status(final URL url, final Repository repository) {
+        return status(url, Repositories.fetchFormattedUrl(repository));
+    }
+
+    private Status status(final URL url, final String circuit) {
         final String urlStr = url.toString();
         LOGGER.debug("Pinging %s", urlStr);
         if (!isSupported(url)) {
-            LOGGER.debug("Protocol not supported for %s", url.toString());
-            return false;
+            LOGGER.debug("Protocol not supported for %s", urlStr);
+            return Status.NOT_FOUND;
+        }
+        final Boolean cached = results.get(urlStr);
+        if (cached != null) {
+            LOGGER.debug("Ping %s for %s (cached)", cached ? "successful" : "failed", urlStr);
+            return cached ? Status.FOUND : Status.NOT_FOUND;
+        }
+        if (!circuitBreaker.allows(circuit)) {
+            LOGGER.debug("Ping skipped for %s, %s is unavailable", urlStr, circuit);
+            return Status.UNAVAILABLE;
         }
-        HttpURLConnection connection = null;
         try {
-            connection = (HttpURLConnection) url.openConnection();
-            connection.addRequestProperty("User-Agent", SLIMJAR_USER_AGENT);
-            connection.connect();
-            final boolean result = connection.getResponseCode() == HttpURLConnection.HTTP_OK;
-            LOGGER.debug("Ping %s for %s", result ? "successful" : "failed", url.toString());
-            return connection.getResponseCode() == HttpURLConnection.HTTP_OK;
-        } catch (IOException e) {
-            LOGGER.debug("Ping failed for %s", url.toString());
-            return false;
-        } finally {
-            if (connection != null) {
-                connection.disconnect();
+            int responseCode = request(url, "HEAD");
+            if (responseCode == HttpURLConnection.HTTP_BAD_METHOD || responseCode == HttpURLConnection.HTTP_NOT_IMPLEMENTED) {
+                // Some repository managers reject HEAD, fall back to a GET that is closed right after the headers.
+                responseCode = request(url, "GET");
+            }
+            if (responseCode >= HttpURLConnection.HTTP_INTERNAL_ERROR) {
+                circuitBreaker.recordFailure(circuit);
+            } else {
+                circuitBreaker.recordSuccess(circuit);
             }
+            final boolean result = responseCode == HttpURLConnection.HTTP_OK;
+            LOGGER.debug("Ping %s for %s", result ? "successful" : "failed", urlStr);
+            if (result || responseCode == HttpURLConnection.HTTP_NOT_FOUND || responseCode == HttpURLConnection.HTTP_GONE) {
+                results.put(urlStr, result);
+                return result ? Status.FOUND : Status.NOT_FOUND;
+            }
+            return Status.UNAVAILABLE;
+        } catch (IOException e) {
+            circuitBreaker.recordFailure(circuit);
+            LOGGER.debug("Ping failed for %s", urlStr);
+            return Status.UNAVAILABLE;
         }
     }
 
+    /**
+     * Opens a small resource such as repository metadata under the same timeouts and circuit breaker as pings.
+     * @throws IOException if the host is being skipped, cannot be reached or does not answer with the resource
+     */
+    public InputStream openStream(final URL url) throws IOException {
+        return openStream(url, hostOf(url));
+    }
+
+    /**
+     * Same as {@link #openStream(URL)} for a resource inside <code>repository</code>, under that repository's circuit.
+     */
+    public InputStream openStream(final URL url, final Repository repository) throws IOException {
+        return openStream(url, Repositories.fetchFormattedUrl(repository));
+    }
+
+    private InputStream openStream(final URL url, final String circuit) throws IOException {
+        if (!circuitBreaker.allows(circuit)) {
+            throw new IOException(circuit + " is unavailable, not downloading " + url);
+        }
+        final URLConnection connection = url.openConnection();
+        connection.setConnectTimeout((int) connectTimeout.toMillis());
+        connection.setReadTimeout((int) readTimeout.toMillis());
+        if (!(connection instanceof HttpURLConnection httpConnection)) return connection.getInputStream();
+        connection.addRequestProperty("User-Agent", Connections.USER_AGENT);
+        final int responseCode;
+        try {
+            responseCode = httpConnection.getResponseCode();
+        } catch (final IOException exception) {
+            circuitBreaker.recordFailure(circuit);
+            throw exception;
+        }
+        if (responseCode >= HttpURLConnection.HTTP_INTERNAL_ERROR) {
+            circuitBreaker.recordFailure(circuit);
+        } else {
+            circuitBreaker.recordSuccess(circuit);
+        }
+        if (responseCode != HttpURLConnection.HTTP_OK) {
+            close(httpConnection.getErrorStream());
+            throw new IOException("Could not download " + url + ", response code " + responseCode);
+        }
+        return httpConnection.getInputStream();
+    }
+
     public boolean isSupported(final URL url) {
         final String protocol = url.getProtocol().toUpperCase(Locale.ENGLISH);
         return SUPPORTED_PROTOCOLS.contains(protocol);
     }
+
+    private static String hostOf(final URL url) {
+        return url.getProtocol() + "://" + url.getAuthority();
+    }
+
+    private int request(final URL url, final String method) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod(method);
+        connection.setConnectTimeout((int) connectTimeout.toMillis());
+        connection.setReadTimeout((int) readTimeout.toMillis());
+        connection.addRequestProperty("User-Agent", SLIMJAR_USER_AGENT);
+        connection.connect();
+        final int responseCode = connection.getResponseCode();
+        // Closing the body instead of disconnecting hands the socket back to the keep-alive cache.
+        close(responseCode < HttpURLConnection.HTTP_BAD_REQUEST ? connection.getInputStream() : connection.getErrorStream());
+        return responseCode;
+    }
+
+    private static void close(final InputStream stream) {
+        if (stream == null) return;
+        try {
+            stream.close();
+        } catch (final IOException ignored) {
+            // Connection will simply not be reused.
+        }
+    }
 }
@@ -24,9 +24,34 @@
 
 package io.github.slimjar.resolver.pinger;
 
+import io.github.slimjar.resolver.data.Repository;
+
 import java.net.URL;
 
 public interface URLPinger {
     boolean ping(final URL url);
     boolean isSupported(final URL url);
+
+    /**
+     * Tells a definite absence apart from a failed ping, so callers only treat answers from a reachable server as final.
+     * The default implementation considers every failed ping definite.
+     */
+    default Status status(final URL url) {
+        return ping(url) ? Status.FOUND : Status.NOT_FOUND;
+    }
+
+    /**
+     * Same as {@link #status(URL)} for a URL inside <code>repository</code>, so implementations can track each repository's health separately.
+     */
+    default Status status(final URL url, final Repository repository) {
+        return status(url);
+    }
+
+    enum Status {
+        FOUND,
+        /** The server answered that the resource does not exist. */
+        NOT_FOUND,
+        /** No definite answer, for example a timeout, a server error or an open circuit. */
+        UNAVAILABLE
+    }
 }
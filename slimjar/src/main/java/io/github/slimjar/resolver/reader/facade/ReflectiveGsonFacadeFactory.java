@@ -68,13 +68,25 @@ public final class ReflectiveGsonFacadeFactory implements GsonFacadeFactory {
     }
 
     public static GsonFacadeFactory create(final Path downloadPath, final Collection<Repository> repositories) throws ReflectiveOperationException, NoSuchAlgorithmException, IOException, URISyntaxException, InterruptedException {
+        return create(downloadPath, repositories, false);
+    }
+
+    /**
+     * @param offline Whether the facade's own dependencies may only be loaded from <code>downloadPath</code>
+     */
+    public static GsonFacadeFactory create(final Path downloadPath, final Collection<Repository> repositories, final boolean offline) throws ReflectiveOperationException, NoSuchAlgorithmException, IOException, URISyntaxException, InterruptedException {
         final InjectableClassLoader classLoader = new IsolatedInjectableClassLoader();
-        return create(downloadPath, repositories, classLoader);
+        return create(downloadPath, repositories, classLoader, offline);
     }
 
     public static GsonFacadeFactory create(final Path downloadPath, final Collection<Repository> repositories, final InjectableClassLoader classLoader) throws ReflectiveOperationException, NoSuchAlgorithmException, IOException, URISyntaxException, InterruptedException {
+        return create(downloadPath, repositories, classLoader, false);
+    }
+
+    public static GsonFacadeFactory create(final Path downloadPath, final Collection<Repository> repositories, final InjectableClassLoader classLoader, final boolean offline) throws ReflectiveOperationException, NoSuchAlgorithmException, IOException, URISyntaxException, InterruptedException {
         ApplicationBuilder.injecting("SlimJar", classLoader)
                 .downloadDirectoryPath(downloadPath)
+                .offline(offline)
                 .dataProviderFactory(url -> () -> ReflectiveGsonFacadeFactory.getGsonDependency(repositories))
                 .relocatorFactory(rules -> new PassthroughRelocator())
                 .preResolutionDataProviderFactory(a -> Collections::emptyMap)
@@ -0,0 +1,282 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.resolver.strategy;
+
+import io.github.slimjar.logging.LogDispatcher;
+import io.github.slimjar.logging.ProcessLogger;
+import io.github.slimjar.resolver.data.Dependency;
+import io.github.slimjar.resolver.data.Repository;
+import io.github.slimjar.resolver.pinger.HttpURLPinger;
+import io.github.slimjar.resolver.pinger.URLPinger;
+import io.github.slimjar.util.Repositories;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import javax.xml.XMLConstants;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+/**
+ * Resolves the exact timestamped snapshot jar from the artifact's <code>maven-metadata.xml</code>,
+ * so a single URL has to be checked instead of guessing several layouts.
+ * Metadata is cached on disk per repository. Once a cached copy is older than the update interval it is still used
+ * for this start while a fresh copy is fetched in the background, so stale snapshots never block startup.
+ * Should the repository have purged the snapshot cached metadata points at, the metadata is fetched again right away.
+ * Metadata is fetched with the pinger's timeouts and circuit breaker.
+ * The build each snapshot was last resolved to is recorded next to its metadata. Once the metadata points at a newer one,
+ * the {@link SnapshotUpdateListener} is told before the new path is handed out, as the local copy is stored under the same name.
+ * Falls back to the given strategy when no metadata is available.
+ */
+public final class MavenMetadataSnapshotPathResolutionStrategy implements PathResolutionStrategy {
+    private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
+    private static final String METADATA_PATH_FORMAT = "%s%s/%s/%s/maven-metadata.xml";
+    private static final String PATH_FORMAT = "%s%s/%s/%s/%3$s-%s.jar";
+    private static final String SNAPSHOT_SUFFIX = "-SNAPSHOT";
+    private static final String RESOLVED_VERSION_FILE = "resolved-version";
+    private final Path cacheDirectory;
+    private final PathResolutionStrategy fallbackStrategy;
+    private final Executor executor;
+    private final Duration updateInterval;
+    private final HttpURLPinger urlPinger;
+    private final SnapshotUpdateListener updateListener;
+    private final Set<Path> refreshing = ConcurrentHashMap.newKeySet();
+    // Metadata fetched, or found to still point at an existing snapshot, during this process.
+    private final Set<Path> current = ConcurrentHashMap.newKeySet();
+    // Metadata that could not be fetched is not requested again by this process, most repositories simply do not host the artifact.
+    private final Set<String> unavailable = ConcurrentHashMap.newKeySet();
+
+    /**
+     * @param updateInterval Age after which cached metadata is refreshed in the background, null to never refresh it
+     */
+    public MavenMetadataSnapshotPathResolutionStrategy(final Path cacheDirectory, final PathResolutionStrategy fallbackStrategy, final Executor executor, final Duration updateInterval) {
+        this(cacheDirectory, fallbackStrategy, executor, updateInterval, new HttpURLPinger());
+    }
+
+    /**
+     * @param urlPinger Fetches the metadata and checks cached snapshots still exist, best shared with the enquirers so those checks are free
+     */
+    public MavenMetadataSnapshotPathResolutionStrategy(final Path cacheDirectory, final PathResolutionStrategy fallbackStrategy, final Executor executor, final Duration updateInterval, final HttpURLPinger urlPinger) {
+        this(cacheDirectory, fallbackStrategy, executor, updateInterval, urlPinger, null);
+    }
+
+    /**
+     * @param updateListener Told about snapshots that moved on to a newer build, may be null
+     */
+    public MavenMetadataSnapshotPathResolutionStrategy(final Path cacheDirectory, final PathResolutionStrategy fallbackStrategy, final Executor executor, final Duration updateInterval, final HttpURLPinger urlPinger, final SnapshotUpdateListener updateListener) {
+        this.updateListener = updateListener;
+        this.cacheDirectory = cacheDirectory;
+        this.fallbackStrategy = fallbackStrategy;
+        this.executor = executor;
+        this.updateInterval = updateInterval;
+        this.urlPinger = urlPinger;
+    }
+
+    @Override
+    public Collection<String> pathTo(final Repository repository, final Dependency dependency) {
+        final String repoUrl = Repositories.fetchFormattedUrl(repository);
+        final String groupPath = dependency.groupId().replace('.', '/');
+        final String baseVersion = dependency.version().replace(SNAPSHOT_SUFFIX, "") + SNAPSHOT_SUFFIX;
+        final String metadataUrl = String.format(METADATA_PATH_FORMAT, repoUrl, groupPath, dependency.artifactId(), baseVersion);
+        final Path cachedMetadata = cacheDirectory
+                .resolve(repoUrl.replaceAll("[^A-Za-z0-9._-]", "_"))
+                .resolve(groupPath)
+                .resolve(dependency.artifactId())
+                .resolve(baseVersion)
+                .resolve("maven-metadata.xml");
+
+        final String version = resolveVersion(repository, metadataUrl, cachedMetadata);
+        if (version == null) {
+            return fallbackStrategy.pathTo(repository, dependency);
+        }
+        final String path = String.format(PATH_FORMAT, repoUrl, groupPath, dependency.artifactId(), baseVersion, version);
+        if (current.contains(cachedMetadata) || !isPurged(repository, path)) {
+            current.add(cachedMetadata);
+            recordResolvedVersion(dependency, cachedMetadata, version);
+            return Collections.singletonList(path);
+        }
+        LOGGER.debug("Snapshot %s is gone, fetching %s again", path, metadataUrl);
+        final String refreshedVersion = refetchVersion(repository, metadataUrl, cachedMetadata);
+        if (refreshedVersion == null) {
+            return fallbackStrategy.pathTo(repository, dependency);
+        }
+        recordResolvedVersion(dependency, cachedMetadata, refreshedVersion);
+        return Collections.singletonList(String.format(PATH_FORMAT, repoUrl, groupPath, dependency.artifactId(), baseVersion, refreshedVersion));
+    }
+
+    // Nothing is reported for the first resolution, there is no way to tell which build an existing local copy is.
+    private void recordResolvedVersion(final Dependency dependency, final Path cachedMetadata, final String version) {
+        final Path record = cachedMetadata.resolveSibling(RESOLVED_VERSION_FILE);
+        try {
+            final String previous = Files.exists(record) ? Files.readString(record, StandardCharsets.US_ASCII).trim() : null;
+            if (version.equals(previous)) return;
+            if (previous != null && updateListener != null) {
+                LOGGER.log("Snapshot %s moved on from %s to %s", dependency.artifactId(), previous, version);
+                updateListener.snapshotUpdated(dependency);
+            }
+            Files.writeString(record, version, StandardCharsets.US_ASCII);
+        } catch (final IOException exception) {
+            LOGGER.debug("Could not record resolved snapshot of %s: %s", dependency.artifactId(), exception.getMessage());
+        }
+    }
+
+    // Only a definite answer counts, an unreachable repository says nothing about the cached metadata.
+    private boolean isPurged(final Repository repository, final String path) {
+        try {
+            return urlPinger.status(new URL(path), repository) == URLPinger.Status.NOT_FOUND;
+        } catch (final MalformedURLException exception) {
+            return false;
+        }
+    }
+
+    // Without usable fresh metadata the rest of this process falls back to the fallback strategy.
+    private String refetchVersion(final Repository repository, final String metadataUrl, final Path cachedMetadata) {
+        try {
+            fetch(repository, metadataUrl, cachedMetadata);
+            return parseVersion(cachedMetadata);
+        } catch (final IOException | SAXException | ParserConfigurationException exception) {
+            LOGGER.debug("Could not fetch snapshot metadata %s again: %s", metadataUrl, exception.getMessage());
+            unavailable.add(metadataUrl);
+            return null;
+        }
+    }
+
+    private String resolveVersion(final Repository repository, final String metadataUrl, final Path cachedMetadata) {
+        if (unavailable.contains(metadataUrl)) return null;
+        try {
+            if (Files.exists(cachedMetadata)) {
+                if (isStale(cachedMetadata)) {
+                    refreshInBackground(repository, metadataUrl, cachedMetadata);
+                }
+            } else {
+                fetch(repository, metadataUrl, cachedMetadata);
+            }
+            return parseVersion(cachedMetadata);
+        } catch (final IOException | SAXException | ParserConfigurationException exception) {
+            LOGGER.debug("Could not use snapshot metadata %s: %s", metadataUrl, exception.getMessage());
+            unavailable.add(metadataUrl);
+            return null;
+        }
+    }
+
+    private boolean isStale(final Path cachedMetadata) throws IOException {
+        return updateInterval != null
+                && System.currentTimeMillis() - Files.getLastModifiedTime(cachedMetadata).toMillis() > updateInterval.toMillis();
+    }
+
+    private void refreshInBackground(final Repository repository, final String metadataUrl, final Path cachedMetadata) {
+        if (!refreshing.add(cachedMetadata)) return;
+        executor.execute(() -> {
+            try {
+                fetch(repository, metadataUrl, cachedMetadata);
+                LOGGER.debug("Refreshed snapshot metadata %s", metadataUrl);
+            } catch (final IOException exception) {
+                LOGGER.debug("Could not refresh snapshot metadata %s: %s", metadataUrl, exception.getMessage());
+            } finally {
+                refreshing.remove(cachedMetadata);
+            }
+        });
+    }
+
+    private void fetch(final Repository repository, final String metadataUrl, final Path cachedMetadata) throws IOException {
+        Files.createDirectories(cachedMetadata.getParent());
+        final Path temporary = Files.createTempFile(cachedMetadata.getParent(), "maven-metadata", ".tmp");
+        try {
+            try (InputStream inputStream = urlPinger.openStream(new URL(metadataUrl), repository)) {
+                Files.copy(inputStream, temporary, StandardCopyOption.REPLACE_EXISTING);
+            }
+            try {
+                Files.move(temporary, cachedMetadata, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (final AtomicMoveNotSupportedException exception) {
+                Files.move(temporary, cachedMetadata, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+        current.add(cachedMetadata);
+    }
+
+    /**
+     * @return Version the main jar was published under, such as <code>1.0-20240101.120000-3</code>
+     */
+    static String parseVersion(final Path metadata) throws IOException, SAXException, ParserConfigurationException {
+        final Document document;
+        try (InputStream inputStream = Files.newInputStream(metadata)) {
+            document = createDocumentBuilder().parse(inputStream);
+        }
+        final NodeList snapshotVersions = document.getElementsByTagName("snapshotVersion");
+        for (int i = 0; i < snapshotVersions.getLength(); i++) {
+            final Element snapshotVersion = (Element) snapshotVersions.item(i);
+            if ("jar".equals(text(snapshotVersion, "extension")) && text(snapshotVersion, "classifier") == null) {
+                return text(snapshotVersion, "value");
+            }
+        }
+        // Older metadata only lists the latest timestamp and build number.
+        final NodeList snapshots = document.getElementsByTagName("snapshot");
+        if (snapshots.getLength() == 0) return null;
+        final Element snapshot = (Element) snapshots.item(0);
+        final String version = text(document.getDocumentElement(), "version");
+        if ("true".equals(text(snapshot, "localCopy"))) return version;
+        final String timestamp = text(snapshot, "timestamp");
+        final String buildNumber = text(snapshot, "buildNumber");
+        if (version == null || timestamp == null || buildNumber == null) return null;
+        return version.replace(SNAPSHOT_SUFFIX, "") + "-" + timestamp + "-" + buildNumber;
+    }
+
+    private static DocumentBuilder createDocumentBuilder() throws ParserConfigurationException {
+        final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setFeature(XMLConstants.FEATURE_SECURE_PROCESSING, true);
+        factory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        factory.setExpandEntityReferences(false);
+        return factory.newDocumentBuilder();
+    }
+
+    private static String text(final Element parent, final String tag) {
+        final NodeList children = parent.getChildNodes();
+        for (int i = 0; i < children.getLength(); i++) {
+            if (children.item(i) instanceof Element child && tag.equals(child.getTagName())) {
+                return child.getTextContent().trim();
+            }
+        }
+        return null;
+    }
+}
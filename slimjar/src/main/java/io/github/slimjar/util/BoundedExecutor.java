@@ -0,0 +1,110 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs tasks on a delegate executor while never occupying more than {@code parallelism} of its threads.
+ * Lets a single shared (possibly unbounded, e.g. virtual thread) executor back several independently limited workloads.
+ * Once {@code queueCapacity} tasks are waiting, further tasks run on the submitting thread instead,
+ * which throttles the producer without ever blocking it.
+ */
+public final class BoundedExecutor implements Executor {
+    private final Executor delegate;
+    private final int parallelism;
+    private final int queueCapacity;
+    private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger workers = new AtomicInteger();
+
+    public BoundedExecutor(final Executor delegate, final int parallelism) {
+        this(delegate, parallelism, Integer.MAX_VALUE);
+    }
+
+    public BoundedExecutor(final Executor delegate, final int parallelism, final int queueCapacity) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1, got " + parallelism);
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be at least 1, got " + queueCapacity);
+        }
+        this.delegate = delegate;
+        this.parallelism = parallelism;
+        this.queueCapacity = queueCapacity;
+    }
+
+    @Override
+    public void execute(final Runnable task) {
+        if (queued.incrementAndGet() > queueCapacity) {
+            queued.decrementAndGet();
+            task.run();
+            return;
+        }
+        queue.add(task);
+        startWorker();
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    private void startWorker() {
+        while (!queue.isEmpty()) {
+            final int current = workers.get();
+            if (current >= parallelism) return;
+            if (!workers.compareAndSet(current, current + 1)) continue;
+            try {
+                delegate.execute(this::drain);
+            } catch (final RejectedExecutionException exception) {
+                workers.decrementAndGet();
+                throw exception;
+            }
+            return;
+        }
+    }
+
+    private void drain() {
+        try {
+            Runnable task;
+            while ((task = queue.poll()) != null) {
+                queued.decrementAndGet();
+                task.run();
+            }
+        } finally {
+            workers.decrementAndGet();
+            // A task may have been queued after the last poll but before the decrement.
+            startWorker();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.util;
+
+import io.github.slimjar.logging.LogDispatcher;
+import io.github.slimjar.logging.ProcessLogger;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Stops calls to a key, such as a repository, after a number of consecutive failures.
+ * Once the cool-down has passed calls are allowed again, a single further failure opens the circuit anew
+ * while a success closes it completely.
+ */
+public final class CircuitBreaker {
+    private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
+    public static final int DEFAULT_FAILURE_THRESHOLD = 3;
+    public static final Duration DEFAULT_COOL_DOWN = Duration.ofSeconds(30);
+    private final int failureThreshold;
+    private final long coolDownMillis;
+    private final Map<String, State> states = new ConcurrentHashMap<>();
+
+    public CircuitBreaker() {
+        this(DEFAULT_FAILURE_THRESHOLD, DEFAULT_COOL_DOWN);
+    }
+
+    /**
+     * @param failureThreshold Consecutive failures after which the circuit opens
+     * @param coolDown How long an open circuit rejects calls
+     */
+    public CircuitBreaker(final int failureThreshold, final Duration coolDown) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("Failure threshold must be at least 1");
+        }
+        this.failureThreshold = failureThreshold;
+        this.coolDownMillis = coolDown.toMillis();
+    }
+
+    public boolean allows(final String key) {
+        final State state = states.get(key);
+        return state == null || state.openUntil() <= System.currentTimeMillis();
+    }
+
+    public void recordSuccess(final String key) {
+        states.remove(key);
+    }
+
+    public void recordFailure(final String key) {
+        final long now = System.currentTimeMillis();
+        final State state = states.merge(key, new State(1, 0), (previous, ignored) -> new State(previous.failures() + 1, previous.openUntil()));
+        if (state.failures() >= failureThreshold && state.openUntil() <= now) {
+            states.computeIfPresent(key, (ignored, current) -> new State(current.failures(), now + coolDownMillis));
+            LOGGER.log("%s failed %d times in a row, skipping it for %d seconds", key, state.failures(), coolDownMillis / 1000);
+        }
+    }
+
+    /**
+     * @return Keys currently rejecting calls
+     */
+    public Set<String> getOpen() {
+        final long now = System.currentTimeMillis();
+        return states.entrySet().stream()
+                .filter(entry -> entry.getValue().openUntil() > now)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+    }
+
+    private record State(int failures, long openUntil) {
+    }
+}
@@ -0,0 +1,126 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.util;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+public final class Concurrency {
+    private static final int VIRTUAL_THREADS_FEATURE_VERSION = 21;
+
+    private Concurrency() throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("This class is not meant to be instantiated");
+    }
+
+    /**
+     * Executor shared by every slimjar component that was not given one explicitly.
+     * Uses virtual threads on JDK 21+ and a cached pool of daemon threads otherwise,
+     * so it never has to be shut down and never competes with the common ForkJoinPool.
+     */
+    public static ExecutorService defaultExecutor() {
+        return DefaultExecutorHolder.INSTANCE;
+    }
+
+    public static ExecutorService createDefaultExecutor() {
+        if (Runtime.version().feature() >= VIRTUAL_THREADS_FEATURE_VERSION) {
+            try {
+                final Method factoryMethod = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+                return (ExecutorService) factoryMethod.invoke(null);
+            } catch (final ReflectiveOperationException ignored) {
+                // Fall through to platform threads.
+            }
+        }
+        return Executors.newCachedThreadPool(new DaemonThreadFactory("slimjar-worker"));
+    }
+
+    /**
+     * Evaluates the suppliers concurrently on the given executor and returns the first non-null result in list order.
+     * The calling thread runs any task that has not been picked up yet instead of idling,
+     * which keeps this safe to call from a task already running on a small bounded executor.
+     */
+    public static <T> T firstNonNull(final Executor executor, final List<? extends Supplier<T>> suppliers) {
+        if (suppliers.isEmpty()) return null;
+        if (suppliers.size() == 1) return suppliers.get(0).get();
+
+        final List<FutureTask<T>> tasks = suppliers.stream()
+                .map(supplier -> new FutureTask<T>(supplier::get))
+                .toList();
+        try {
+            for (int i = 1; i < tasks.size(); i++) {
+                executor.execute(tasks.get(i));
+            }
+            for (final FutureTask<T> task : tasks) {
+                task.run();
+                final T result = await(task);
+                if (result != null) return result;
+            }
+            return null;
+        } finally {
+            tasks.forEach(task -> task.cancel(false));
+        }
+    }
+
+    private static <T> T await(final FutureTask<T> task) {
+        try {
+            return task.get();
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (final ExecutionException exception) {
+            final Throwable cause = exception.getCause();
+            if (cause instanceof RuntimeException runtimeException) throw runtimeException;
+            if (cause instanceof Error error) throw error;
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private static final class DefaultExecutorHolder {
+        private static final ExecutorService INSTANCE = createDefaultExecutor();
+    }
+
+    public static final class DaemonThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        public DaemonThreadFactory(final String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(final Runnable runnable) {
+            final Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
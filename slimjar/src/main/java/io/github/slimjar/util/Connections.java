@@ -35,20 +35,50 @@ public final class Connections {
         throw new UnsupportedOperationException("This class is not meant to be instantiated");
     }
 
-    private static final String SLIMJAR_USER_AGENT = "SlimjarApplication/* URLDependencyDownloader";
+    public static final String USER_AGENT = "SlimjarApplication/* URLDependencyDownloader";
 
     public static URLConnection createDownloadConnection(final URL url) throws IOException {
+        return createDownloadConnection(url, 0, null);
+    }
+
+    /**
+     * Opens a download connection, asking for the content starting at <code>offset</code> when it is non-zero.
+     * Servers are free to ignore the range, callers must check for {@link HttpURLConnection#HTTP_PARTIAL} before appending.
+     * @param validator Sent as <code>If-Range</code>, so the whole content is sent instead when it changed since, may be null
+     */
+    public static URLConnection createDownloadConnection(final URL url, final long offset, final String validator) throws IOException {
         final URLConnection connection =  url.openConnection();
         if (connection instanceof HttpURLConnection httpConnection) {
-            connection.addRequestProperty("User-Agent", SLIMJAR_USER_AGENT);
+            connection.addRequestProperty("User-Agent", USER_AGENT);
+            if (offset > 0) {
+                connection.addRequestProperty("Range", "bytes=" + offset + "-");
+                if (validator != null) {
+                    connection.addRequestProperty("If-Range", validator);
+                }
+            }
             final int responseCode = httpConnection.getResponseCode();
 
-            if (responseCode != HttpURLConnection.HTTP_OK) {
+            if (responseCode != HttpURLConnection.HTTP_OK && !(offset > 0 && responseCode == HttpURLConnection.HTTP_PARTIAL)) {
                 throw new IOException("Could not download from" + url);
             }
         }
         return connection;
     }
+
+    /**
+     * @return Validator to resume the content with, the ETag if it is a strong one, otherwise the Last-Modified date, null if neither is usable
+     */
+    public static String resumeValidator(final String etag, final String lastModified) {
+        // If-Range only accepts strong validators.
+        if (etag != null && !etag.startsWith("W/")) return etag;
+        return lastModified;
+    }
+
+    public static boolean isPartial(final URLConnection urlConnection) throws IOException {
+        return urlConnection instanceof HttpURLConnection httpURLConnection
+                && httpURLConnection.getResponseCode() == HttpURLConnection.HTTP_PARTIAL;
+    }
+
     public static void tryDisconnect(final URLConnection urlConnection) {
         if (urlConnection instanceof HttpURLConnection httpURLConnection) {
             httpURLConnection.disconnect();
@@ -0,0 +1,126 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.util;
+
+import io.github.slimjar.logging.LogDispatcher;
+import io.github.slimjar.logging.ProcessLogger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Coordinates writes to files in a directory shared by several threads and processes (such as ~/.slimjar).
+ * Threads of the same JVM queue on an in-memory lock, other processes on an OS level lock of a <code>.lock</code> file.
+ * Locks are reentrant per thread, nested calls for the same file only take the locks once.
+ * Lock files are kept in the {@link #LOCK_DIRECTORY} of the closest directory above the target that has one, mirroring the layout below it,
+ * so they do not clutter the shared directory. Without one they are placed next to the target.
+ * They are never deleted, another process may be waiting on the very file that would be removed.
+ */
+public final class FileLocks {
+    private static final ProcessLogger LOGGER = LogDispatcher.getMediatingLogger();
+    public static final String LOCK_DIRECTORY = ".slimjar-locks";
+    private static final String LOCK_SUFFIX = ".lock";
+    // Entries are removed once no thread holds or waits for them.
+    private static final Map<String, Entry> LOCKS = new ConcurrentHashMap<>();
+
+    private FileLocks() throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("This class is not meant to be instantiated");
+    }
+
+    /**
+     * Creates the lock directory of <code>directory</code>, which every process sharing it has to agree on before taking any lock below it.
+     */
+    public static void createLockDirectory(final Path directory) throws IOException {
+        Files.createDirectories(directory.resolve(LOCK_DIRECTORY));
+    }
+
+    /**
+     * Runs <code>action</code> while holding the lock for <code>target</code>.
+     * Callers are expected to re-check the state of <code>target</code> inside the action, another holder may have produced it meanwhile.
+     */
+    public static <T> T withLock(final File target, final LockedAction<T> action) throws IOException, InterruptedException {
+        final Path lockFile = lockFileFor(target.getAbsoluteFile().toPath());
+        final String key = lockFile.toString();
+        final Entry entry = LOCKS.compute(key, (ignored, existing) -> {
+            final Entry current = existing != null ? existing : new Entry();
+            current.users++;
+            return current;
+        });
+        try {
+            entry.lock.lockInterruptibly();
+            try {
+                if (entry.lock.getHoldCount() > 1) {
+                    return action.run();
+                }
+                // Holders write next to the target and expect its directory to exist.
+                Files.createDirectories(target.getAbsoluteFile().toPath().getParent());
+                Files.createDirectories(lockFile.getParent());
+                // Closing the channel releases the lock.
+                try (final FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                    acquire(channel, target);
+                    return action.run();
+                }
+            } finally {
+                entry.lock.unlock();
+            }
+        } finally {
+            LOCKS.computeIfPresent(key, (ignored, existing) -> --existing.users == 0 ? null : existing);
+        }
+    }
+
+    private static Path lockFileFor(final Path target) {
+        for (Path directory = target.getParent(); directory != null; directory = directory.getParent()) {
+            final Path lockDirectory = directory.resolve(LOCK_DIRECTORY);
+            if (Files.isDirectory(lockDirectory)) {
+                return lockDirectory.resolve(directory.relativize(target) + LOCK_SUFFIX);
+            }
+        }
+        return Path.of(target + LOCK_SUFFIX);
+    }
+
+    private static void acquire(final FileChannel channel, final File target) throws IOException {
+        if (channel.tryLock() != null) return;
+        LOGGER.log("Waiting for another process to finish writing %s", target.getName());
+        channel.lock();
+    }
+
+    @FunctionalInterface
+    public interface LockedAction<T> {
+        T run() throws IOException, InterruptedException;
+    }
+
+    private static final class Entry {
+        private final ReentrantLock lock = new ReentrantLock();
+        // Only changed inside the map's atomic compute calls.
+        private int users;
+    }
+}
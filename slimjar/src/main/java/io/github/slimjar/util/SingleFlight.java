@@ -0,0 +1,82 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.util;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Runs at most one computation per key. Concurrent and later callers for the same key wait for and share its result.
+ * Failed computations are forgotten so the next caller retries them.
+ */
+public final class SingleFlight<K, V> {
+    private final Map<K, CompletableFuture<V>> flights = new ConcurrentHashMap<>();
+
+    public V execute(final K key, final Flight<V> flight) throws IOException, InterruptedException {
+        final CompletableFuture<V> future = new CompletableFuture<>();
+        final CompletableFuture<V> existing = flights.putIfAbsent(key, future);
+        if (existing != null) {
+            return await(existing);
+        }
+        try {
+            final V result = flight.run();
+            future.complete(result);
+            return result;
+        } catch (final Throwable throwable) {
+            flights.remove(key, future);
+            future.completeExceptionally(throwable);
+            throw throwable;
+        }
+    }
+
+    /**
+     * @return Whether a computation for <code>key</code> finished successfully with a non-null result.
+     */
+    public boolean hasResult(final K key) {
+        final CompletableFuture<V> future = flights.get(key);
+        return future != null && future.isDone() && !future.isCompletedExceptionally() && future.join() != null;
+    }
+
+    private static <V> V await(final CompletableFuture<V> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (final ExecutionException exception) {
+            final Throwable cause = exception.getCause();
+            if (cause instanceof IOException ioException) throw ioException;
+            if (cause instanceof InterruptedException) throw new IOException("Shared computation was interrupted", cause);
+            if (cause instanceof RuntimeException runtimeException) throw runtimeException;
+            if (cause instanceof Error error) throw error;
+            throw new IOException(cause);
+        }
+    }
+
+    @FunctionalInterface
+    public interface Flight<V> {
+        V run() throws IOException, InterruptedException;
+    }
+}
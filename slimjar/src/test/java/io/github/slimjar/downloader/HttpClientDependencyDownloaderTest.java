@@ -0,0 +1,192 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.downloader;
+
+import com.sun.net.httpserver.HttpServer;
+import io.github.slimjar.downloader.output.DependencyOutputWriterFactory;
+import io.github.slimjar.downloader.strategy.FilePathStrategy;
+import io.github.slimjar.downloader.verify.PassthroughDependencyVerifierFactory;
+import io.github.slimjar.resolver.DependencyResolver;
+import io.github.slimjar.resolver.ResolutionResult;
+import io.github.slimjar.resolver.data.Dependency;
+import io.github.slimjar.resolver.data.Repository;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class HttpClientDependencyDownloaderTest {
+
+    @Test
+    public void testDownloadStreamsBodyToOutputFile() throws Exception {
+        final byte[] content = "jar-content".getBytes(StandardCharsets.UTF_8);
+        final AtomicInteger requests = new AtomicInteger();
+        final HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            requests.incrementAndGet();
+            final boolean found = exchange.getRequestURI().getPath().endsWith(".jar");
+            exchange.sendResponseHeaders(found ? 200 : 404, found ? content.length : -1);
+            try (final OutputStream outputStream = exchange.getResponseBody()) {
+                if (found) outputStream.write(content);
+            }
+        });
+        server.start();
+        try {
+            final File directory = Files.createTempDirectory("slimjar-test").toFile();
+            final String base = "http://127.0.0.1:" + server.getAddress().getPort();
+            final Dependency dependency = new Dependency("a.b.c", "artifact", "1.0", null, Collections.emptyList());
+            final Dependency missing = new Dependency("a.b.c", "missing", "1.0", null, Collections.emptyList());
+            final DependencyResolver resolver = dep -> Optional.of(new ResolutionResult(
+                new Repository(url(base)),
+                url(base + "/" + dep.artifactId() + (dep == missing ? ".pom" : ".jar")),
+                null,
+                false,
+                true
+            ));
+
+            final DependencyDownloader downloader = new HttpClientDependencyDownloaderFactory().create(
+                new DependencyOutputWriterFactory(FilePathStrategy.createDefault(directory)),
+                resolver,
+                new PassthroughDependencyVerifierFactory().create(resolver)
+            );
+
+            final File downloaded = downloader.download(dependency);
+            Assertions.assertArrayEquals(content, Files.readAllBytes(downloaded.toPath()), "Downloaded content must match the served body");
+            Assertions.assertEquals(downloaded, downloader.download(dependency), "Existing files must be reused");
+            Assertions.assertEquals(1, requests.get(), "Existing files must not be downloaded again");
+            Assertions.assertThrows(IOException.class, () -> downloader.download(missing));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testLargeArtifactsAreDownloadedInChunks() throws Exception {
+        final byte[] content = new byte[10_000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        final AtomicInteger rangeRequests = new AtomicInteger();
+        final AtomicInteger headRequests = new AtomicInteger();
+        final HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            if ("HEAD".equals(exchange.getRequestMethod())) {
+                headRequests.incrementAndGet();
+            }
+            final String range = exchange.getRequestHeaders().getFirst("Range");
+            int start = 0;
+            int end = content.length - 1;
+            if (range != null) {
+                rangeRequests.incrementAndGet();
+                final String[] bounds = range.substring("bytes=".length()).split("-", -1);
+                start = Integer.parseInt(bounds[0]);
+                end = bounds[1].isEmpty() ? content.length - 1 : Integer.parseInt(bounds[1]);
+                exchange.getResponseHeaders().add("Content-Range", "bytes " + start + "-" + end + "/" + content.length);
+            }
+            exchange.sendResponseHeaders(range == null ? 200 : 206, end - start + 1);
+            try (final OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(content, start, end - start + 1);
+            }
+        });
+        server.start();
+        try {
+            final File directory = Files.createTempDirectory("slimjar-test").toFile();
+            final String base = "http://127.0.0.1:" + server.getAddress().getPort();
+            final Dependency dependency = new Dependency("a.b.c", "large", "1.0", null, Collections.emptyList());
+            final DependencyResolver resolver = dep -> Optional.of(new ResolutionResult(new Repository(url(base)), url(base + "/large.jar"), null, false, true));
+
+            final DependencyDownloader downloader = new HttpClientDependencyDownloaderFactory(
+                Duration.ofSeconds(5),
+                Duration.ofSeconds(5),
+                Runnable::run,
+                1_000,
+                4
+            ).create(new DependencyOutputWriterFactory(FilePathStrategy.createDefault(directory)), resolver, new PassthroughDependencyVerifierFactory().create(resolver));
+
+            final File downloaded = downloader.download(dependency);
+            Assertions.assertArrayEquals(content, Files.readAllBytes(downloaded.toPath()), "Chunks must be assembled in order");
+            Assertions.assertEquals(4, rangeRequests.get(), "Artifact above the threshold must be split into chunks");
+            Assertions.assertEquals(0, headRequests.get(), "The first range request must double as the probe");
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testStalledBodyFailsAfterReadTimeout() throws Exception {
+        final CountDownLatch released = new CountDownLatch(1);
+        final HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            exchange.sendResponseHeaders(200, 1_000);
+            try (final OutputStream outputStream = exchange.getResponseBody()) {
+                outputStream.write(new byte[100]);
+                outputStream.flush();
+                released.await(10, TimeUnit.SECONDS);
+            } catch (final InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        server.start();
+        try {
+            final File directory = Files.createTempDirectory("slimjar-test").toFile();
+            final String base = "http://127.0.0.1:" + server.getAddress().getPort();
+            final Dependency dependency = new Dependency("a.b.c", "stalled", "1.0", null, Collections.emptyList());
+            final DependencyResolver resolver = dep -> Optional.of(new ResolutionResult(new Repository(url(base)), url(base + "/stalled.jar"), null, false, true));
+
+            final DependencyDownloader downloader = new HttpClientDependencyDownloaderFactory(
+                Duration.ofSeconds(5),
+                Duration.ofMillis(300),
+                Runnable::run
+            ).create(new DependencyOutputWriterFactory(FilePathStrategy.createDefault(directory)), resolver, new PassthroughDependencyVerifierFactory().create(resolver));
+
+            final long start = System.nanoTime();
+            Assertions.assertThrows(IOException.class, () -> downloader.download(dependency), "A body that stops arriving must fail the download");
+            Assertions.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5), "The download must fail once the read timeout passed without data");
+        } finally {
+            released.countDown();
+            server.stop(0);
+        }
+    }
+
+    private static URL url(final String url) {
+        try {
+            return new URL(url);
+        } catch (final IOException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+}
@@ -0,0 +1,70 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.downloader;
+
+import io.github.slimjar.downloader.output.DependencyOutputWriterFactory;
+import io.github.slimjar.downloader.output.DigestingOutputWriterFactory;
+import io.github.slimjar.downloader.output.OutputWriterFactory;
+import io.github.slimjar.downloader.strategy.FilePathStrategy;
+import io.github.slimjar.downloader.verify.FileChecksumCalculator;
+import io.github.slimjar.downloader.verify.InlineChecksumCalculator;
+import io.github.slimjar.resolver.data.Dependency;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class InlineChecksumTest {
+
+    @Test
+    public void testChecksumRecordedWhileWriting() throws Exception {
+        final File directory = Files.createTempDirectory("slimjar-test").toFile();
+        final FileChecksumCalculator fileChecksumCalculator = new FileChecksumCalculator("SHA-1");
+        final AtomicInteger fallbackCalls = new AtomicInteger();
+        final InlineChecksumCalculator calculator = new InlineChecksumCalculator("SHA-1", file -> {
+            fallbackCalls.incrementAndGet();
+            return fileChecksumCalculator.calculate(file);
+        });
+        final OutputWriterFactory writerFactory = new DigestingOutputWriterFactory(
+            new DependencyOutputWriterFactory(FilePathStrategy.createDefault(directory)),
+            calculator
+        );
+        final Dependency dependency = new Dependency("a.b.c", "artifact", "1.0", null, Collections.emptyList());
+        final byte[] content = "some jar content".getBytes(StandardCharsets.UTF_8);
+
+        final File written = writerFactory.create(dependency).writeFrom(new ByteArrayInputStream(content), content.length);
+        final String expected = fileChecksumCalculator.calculate(written);
+
+        Assertions.assertEquals(expected, calculator.calculate(written), "Inline checksum must match a full read");
+        Assertions.assertEquals(0, fallbackCalls.get(), "Freshly written files must not be read back");
+        Assertions.assertEquals(expected, calculator.calculate(written));
+        Assertions.assertEquals(1, fallbackCalls.get(), "Recorded checksums are only used once");
+    }
+}
@@ -0,0 +1,123 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.downloader;
+
+import io.github.slimjar.downloader.output.DependencyOutputWriterFactory;
+import io.github.slimjar.downloader.strategy.ChecksumFilePathStrategy;
+import io.github.slimjar.downloader.strategy.FilePathStrategy;
+import io.github.slimjar.downloader.verify.ChecksumDependencyVerifier;
+import io.github.slimjar.downloader.verify.FileChecksumCalculator;
+import io.github.slimjar.downloader.verify.PassthroughDependencyVerifierFactory;
+import io.github.slimjar.injector.helper.InjectionHelper;
+import io.github.slimjar.resolver.DependencyResolver;
+import io.github.slimjar.resolver.ResolutionResult;
+import io.github.slimjar.resolver.data.Dependency;
+import io.github.slimjar.resolver.data.Repository;
+import io.github.slimjar.util.SingleFlight;
+
+import java.io.File;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class MavenLocalRepositoryTest {
+
+    @Test
+    public void testArtifactIsLinked() throws Exception {
+        final File localRoot = Files.createTempDirectory("slimjar-m2").toFile();
+        final File downloadRoot = Files.createTempDirectory("slimjar-test").toFile();
+        final Dependency dependency = new Dependency("a.b.c", "artifact", "1.0", null, Collections.emptyList());
+        final File artifact = install(localRoot, dependency, "content");
+        final MavenLocalRepository repository = new MavenLocalRepository(localRoot);
+        final File target = FilePathStrategy.createDefault(downloadRoot).selectFileFor(dependency);
+
+        Assertions.assertEquals(target, repository.link(dependency, target));
+        Assertions.assertTrue(Files.isSameFile(artifact.toPath(), target.toPath()), "Artifact must be linked rather than copied");
+    }
+
+    @Test
+    public void testAbsentAndSnapshotArtifactsAreIgnored() throws Exception {
+        final File localRoot = Files.createTempDirectory("slimjar-m2").toFile();
+        final File downloadRoot = Files.createTempDirectory("slimjar-test").toFile();
+        final Dependency absent = new Dependency("a.b.c", "absent", "1.0", null, Collections.emptyList());
+        final Dependency snapshot = new Dependency("a.b.c", "snapshot", "1.0-SNAPSHOT", null, Collections.emptyList());
+        install(localRoot, snapshot, "content");
+        final MavenLocalRepository repository = new MavenLocalRepository(localRoot);
+        final FilePathStrategy targets = FilePathStrategy.createDefault(downloadRoot);
+
+        Assertions.assertNull(repository.link(absent, targets.selectFileFor(absent)));
+        Assertions.assertNull(repository.link(snapshot, targets.selectFileFor(snapshot)));
+        Assertions.assertFalse(targets.selectFileFor(snapshot).exists());
+    }
+
+    @Test
+    public void testLocalArtifactNotMatchingResolvedChecksumIsDownloaded() throws Exception {
+        final File localRoot = Files.createTempDirectory("slimjar-m2").toFile();
+        final File downloadRoot = Files.createTempDirectory("slimjar-test").toFile();
+        final Dependency dependency = new Dependency("a.b.c", "artifact", "1.0", null, Collections.emptyList());
+        // Installed locally under the same coordinates, but not the artifact the build resolved.
+        final File artifact = install(localRoot, dependency, "rebuilt");
+        final File expected = Files.createTempFile("slimjar-test", ".jar").toFile();
+        Files.write(expected.toPath(), "released".getBytes(StandardCharsets.UTF_8));
+        final String checksum = new FileChecksumCalculator("SHA-1").calculate(expected);
+        final ResolutionResult resolution = new ResolutionResult(new Repository(new URL("https://repo.tld/")), new URL("https://repo.tld/artifact-1.0.jar"), null, false, true, checksum);
+        final DependencyResolver resolver = dep -> Optional.of(resolution);
+        final FilePathStrategy filePathStrategy = FilePathStrategy.createDefault(downloadRoot);
+        final AtomicInteger downloads = new AtomicInteger();
+        final DependencyDownloader downloader = dep -> {
+            final File file = filePathStrategy.selectFileFor(dep);
+            if (downloads.getAndIncrement() == 0 && file.exists()) return file;
+            file.getParentFile().mkdirs();
+            Files.copy(expected.toPath(), file.toPath());
+            return file;
+        };
+        final ChecksumDependencyVerifier verifier = new ChecksumDependencyVerifier(
+            resolver,
+            new DependencyOutputWriterFactory(ChecksumFilePathStrategy.createStrategy(downloadRoot, "SHA-1")),
+            new PassthroughDependencyVerifierFactory().create(resolver),
+            new FileChecksumCalculator("SHA-1")
+        );
+        final InjectionHelper helper = new InjectionHelper(resolver, downloader, verifier, (dep, file) -> file, filePathStrategy, new SingleFlight<>(), new SingleFlight<>(), new MavenLocalRepository(localRoot));
+
+        final File fetched = helper.fetch(dependency);
+
+        Assertions.assertEquals(2, downloads.get(), "Mismatched local copy must be replaced by a download");
+        Assertions.assertEquals(checksum, new FileChecksumCalculator("SHA-1").calculate(fetched));
+        Assertions.assertEquals("rebuilt", new String(Files.readAllBytes(artifact.toPath()), StandardCharsets.UTF_8), "Local repository must be left untouched");
+    }
+
+    // Writes the artifact in the Maven layout.
+    private static File install(final File root, final Dependency dependency, final String content) throws Exception {
+        final File artifact = FilePathStrategy.createDefault(root).selectFileFor(dependency);
+        artifact.getParentFile().mkdirs();
+        Files.write(artifact.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return artifact;
+    }
+}
@@ -0,0 +1,76 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.downloader.output;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ChanneledFileOutputWriterTest {
+
+    @Test
+    public void testWriteIsMovedIntoPlace() throws Exception {
+        final File output = new File(Files.createTempDirectory("slimjar-test").toFile(), "artifact.jar");
+        final byte[] content = "complete content".getBytes(StandardCharsets.UTF_8);
+
+        final File result = new ChanneledFileOutputWriter(output).writeFrom(new ByteArrayInputStream(content), content.length);
+
+        Assertions.assertEquals(output, result);
+        Assertions.assertArrayEquals(content, Files.readAllBytes(output.toPath()));
+        Assertions.assertFalse(new File(output.getPath() + ".part").exists(), "Partial file must be moved into place");
+    }
+
+    @Test
+    public void testTruncatedWriteIsKeptForResuming() throws Exception {
+        final File output = new File(Files.createTempDirectory("slimjar-test").toFile(), "artifact.jar");
+        final OutputWriter writer = new ChanneledFileOutputWriter(output);
+        final byte[] prefix = "complete".getBytes(StandardCharsets.UTF_8);
+
+        // The stream ends cleanly, but before the announced 16 bytes.
+        Assertions.assertThrows(IOException.class, () -> writer.writeFrom(new ByteArrayInputStream(prefix), 16, 0, "\"v1\""));
+
+        Assertions.assertFalse(output.exists(), "Partial writes must never appear at the final path");
+        Assertions.assertEquals(8, writer.getResumeOffset(), "Partial bytes must be reported for resuming");
+        Assertions.assertEquals("\"v1\"", writer.getResumeValidator());
+
+        final byte[] remainder = " content".getBytes(StandardCharsets.UTF_8);
+        writer.writeFrom(new ByteArrayInputStream(remainder), remainder.length, 8, "\"v1\"");
+
+        Assertions.assertEquals("complete content", new String(Files.readAllBytes(output.toPath()), StandardCharsets.UTF_8));
+        Assertions.assertNull(writer.getResumeValidator());
+    }
+
+    @Test
+    public void testPartialFileWithoutValidatorIsNotResumed() throws Exception {
+        final File output = new File(Files.createTempDirectory("slimjar-test").toFile(), "artifact.jar");
+        Files.write(new File(output.getPath() + ".part").toPath(), "complete".getBytes(StandardCharsets.UTF_8));
+
+        Assertions.assertEquals(0, new ChanneledFileOutputWriter(output).getResumeOffset(), "Content of unknown origin must not be resumed");
+    }
+}
@@ -0,0 +1,71 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.downloader.verify;
+
+import io.github.slimjar.downloader.output.DependencyOutputWriterFactory;
+import io.github.slimjar.downloader.strategy.ChecksumFilePathStrategy;
+import io.github.slimjar.resolver.ResolutionResult;
+import io.github.slimjar.resolver.data.Dependency;
+import io.github.slimjar.resolver.data.Repository;
+
+import java.io.File;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Optional;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ChecksumDependencyVerifierTest {
+
+    @Test
+    public void testInlineChecksumSkipsChecksumDownload() throws Exception {
+        final File directory = Files.createTempDirectory("slimjar-test").toFile();
+        final File jar = new File(directory, "artifact-1.0.jar");
+        Files.write(jar.toPath(), "some jar content".getBytes(StandardCharsets.UTF_8));
+        final ChecksumCalculator calculator = new FileChecksumCalculator("SHA-1");
+        final Dependency dependency = new Dependency("a.b.c", "artifact", "1.0", null, Collections.emptyList());
+        // Nothing listens on port 1, fetching the checksum file would fail the test.
+        final ResolutionResult result = new ResolutionResult(
+            new Repository(new URL("http://127.0.0.1:1/")),
+            new URL("http://127.0.0.1:1/artifact-1.0.jar"),
+            new URL("http://127.0.0.1:1/artifact-1.0.jar.sha1"),
+            false,
+            true,
+            calculator.calculate(jar)
+        );
+        final DependencyVerifier verifier = new ChecksumDependencyVerifier(
+            ignored -> Optional.of(result),
+            new DependencyOutputWriterFactory(ChecksumFilePathStrategy.createStrategy(directory, "SHA-1")),
+            new PassthroughDependencyVerifierFactory().create(ignored -> Optional.empty()),
+            calculator
+        );
+
+        verifier.prepare(dependency);
+
+        Assertions.assertTrue(verifier.verify(jar, dependency), "Inline checksum must be used for verification");
+    }
+}
@@ -0,0 +1,70 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.downloader.verify;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class FileChecksumCalculatorTest {
+
+    @Test
+    public void testKnownDigestFromManyThreads() throws Exception {
+        final File file = Files.createTempFile("slimjar-test", ".jar").toFile();
+        Files.write(file.toPath(), "abc".getBytes(StandardCharsets.UTF_8));
+        final ChecksumCalculator calculator = new FileChecksumCalculator("SHA-1");
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        final List<Future<String>> results = new ArrayList<>();
+
+        for (int i = 0; i < 64; i++) {
+            results.add(executor.submit(() -> calculator.calculate(file)));
+        }
+        for (final Future<String> result : results) {
+            Assertions.assertEquals("a9993e364706816aba3e25717850c26c9cd0d89d", result.get());
+        }
+        executor.shutdown();
+    }
+
+    @Test
+    public void testMappedWindowsMatchBufferedReads() throws Exception {
+        final byte[] content = new byte[10_000];
+        new Random(7).nextBytes(content);
+        final File file = Files.createTempFile("slimjar-test", ".jar").toFile();
+        Files.write(file.toPath(), content);
+
+        final String buffered = new FileChecksumCalculator("SHA-256").calculate(file);
+        final String mapped = new MappedFileChecksumCalculator("SHA-256", 0, 1_000).calculate(file);
+
+        Assertions.assertEquals(buffered, mapped, "Hashing in mapped windows must produce the same digest");
+    }
+}
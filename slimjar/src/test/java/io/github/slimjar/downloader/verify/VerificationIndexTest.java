@@ -0,0 +1,72 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.downloader.verify;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class VerificationIndexTest {
+
+    @Test
+    public void testIndexSurvivesReloadAndTracksMetadata() throws Exception {
+        final Path directory = Files.createTempDirectory("slimjar-test");
+        final Path indexFile = directory.resolve("verification-SHA-1.index");
+        final File jar = directory.resolve("artifact.jar").toFile();
+        Files.write(jar.toPath(), new byte[]{1, 2, 3});
+
+        VerificationIndex.load(indexFile).record(jar, "abc");
+        final VerificationIndex reloaded = VerificationIndex.load(indexFile);
+
+        Assertions.assertEquals("abc", reloaded.lookup(jar, null), "Entries must be persisted");
+        Assertions.assertNull(reloaded.lookup(jar, Duration.ofMillis(-1)), "Entries older than the interval must be ignored");
+
+        Files.write(jar.toPath(), new byte[]{1, 2, 3, 4});
+        Assertions.assertNull(reloaded.lookup(jar, null), "Changed files must be hashed again");
+    }
+
+    @Test
+    public void testIndexedCalculatorSkipsUnchangedFiles() throws Exception {
+        final Path directory = Files.createTempDirectory("slimjar-test");
+        final File jar = directory.resolve("artifact.jar").toFile();
+        Files.write(jar.toPath(), new byte[]{1, 2, 3});
+        final AtomicInteger calculations = new AtomicInteger();
+        final ChecksumCalculator counting = file -> {
+            calculations.incrementAndGet();
+            return "digest";
+        };
+
+        final ChecksumCalculator first = new IndexedChecksumCalculator(counting, VerificationIndex.load(directory.resolve("index")), null);
+        Assertions.assertEquals("digest", first.calculate(jar));
+        final ChecksumCalculator second = new IndexedChecksumCalculator(counting, VerificationIndex.load(directory.resolve("index")), null);
+        Assertions.assertEquals("digest", second.calculate(jar));
+
+        Assertions.assertEquals(1, calculations.get(), "Unchanged files must not be hashed on the next start");
+    }
+}
@@ -0,0 +1,247 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.injector;
+
+import io.github.slimjar.downloader.strategy.FilePathStrategy;
+import io.github.slimjar.downloader.verify.DependencyVerifier;
+import io.github.slimjar.downloader.verify.PassthroughDependencyVerifierFactory;
+import io.github.slimjar.injector.helper.InjectionHelper;
+import io.github.slimjar.resolver.ResolutionResult;
+import io.github.slimjar.resolver.data.Dependency;
+import io.github.slimjar.util.SingleFlight;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class DependencySchedulerTest {
+
+    @Test
+    public void testSchedulerInjectsInDeclarationOrder() {
+        final Dependency shared = dependency("shared", Collections.emptyList());
+        final Dependency first = dependency("first", Collections.singletonList(shared));
+        final Dependency second = dependency("second", Arrays.asList(shared, dependency("leaf", Collections.emptyList())));
+        final Map<String, AtomicInteger> fetchCounts = new ConcurrentHashMap<>();
+
+        final InjectionHelper helper = new InjectionHelper(
+            dependency -> {
+                fetchCounts.computeIfAbsent(dependency.artifactId(), key -> new AtomicInteger()).incrementAndGet();
+                // Finish later declared dependencies first to make sure ordering does not depend on timing.
+                Thread.sleep("first".equals(dependency.artifactId()) ? 50 : 0);
+                return new File(dependency.artifactId() + ".jar");
+            },
+            (dependency, file) -> file
+        );
+        final List<String> injected = Collections.synchronizedList(new ArrayList<>());
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        new DependencyScheduler(helper, executor).inject(url -> injected.add(fileName(url)), Arrays.asList(first, second));
+        executor.shutdown();
+
+        Assertions.assertEquals(Arrays.asList("first.jar", "shared.jar", "second.jar", "leaf.jar"), injected, "Injection order must follow the dependency tree");
+        fetchCounts.forEach((artifact, count) -> Assertions.assertEquals(1, count.get(), "Fetched more than once: " + artifact));
+    }
+
+    @Test
+    public void testSchedulerSkipsTransitivesOfAggregators() {
+        final Dependency child = dependency("child", Collections.emptyList());
+        final Dependency aggregator = dependency("aggregator", Collections.singletonList(child));
+        final List<String> fetched = Collections.synchronizedList(new ArrayList<>());
+
+        final InjectionHelper helper = new InjectionHelper(
+            dependency -> {
+                fetched.add(dependency.artifactId());
+                return dependency == aggregator ? null : new File(dependency.artifactId() + ".jar");
+            },
+            (dependency, file) -> file
+        );
+        final List<String> injected = new ArrayList<>();
+
+        new DependencyScheduler(helper, Runnable::run).inject(url -> injected.add(fileName(url)), Collections.singletonList(aggregator));
+
+        Assertions.assertEquals(Collections.singletonList("aggregator"), fetched, "Aggregator children must not be fetched");
+        Assertions.assertTrue(injected.isEmpty(), "Nothing should be injected for an aggregator");
+    }
+
+    @Test
+    public void testPipelineWithMinimalQueuesInjectsEverything() {
+        final List<Dependency> dependencies = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            dependencies.add(dependency("dep" + i, Collections.singletonList(dependency("child" + i, Collections.emptyList()))));
+        }
+        final InjectionHelper helper = new InjectionHelper(
+            dependency -> new File(dependency.artifactId() + ".jar"),
+            (dependency, file) -> new File("relocated-" + file.getName())
+        );
+        final PipelineConfiguration configuration = PipelineConfiguration.builder()
+            .parallelism(1)
+            .queueCapacity(1)
+            .build();
+        final List<String> injected = Collections.synchronizedList(new ArrayList<>());
+        final ExecutorService executor = Executors.newCachedThreadPool();
+
+        new DependencyScheduler(helper, executor, configuration).inject(url -> injected.add(fileName(url)), dependencies);
+        executor.shutdown();
+
+        Assertions.assertEquals(40, injected.size(), "Every dependency must pass through all stages");
+        Assertions.assertEquals("relocated-dep0.jar", injected.get(0));
+        Assertions.assertEquals("relocated-child0.jar", injected.get(1));
+    }
+
+    @Test
+    public void testCacheVerificationReportsStaleAndMissingEntries() throws Exception {
+        final File directory = Files.createTempDirectory("slimjar-test").toFile();
+        final FilePathStrategy filePathStrategy = FilePathStrategy.createDefault(directory);
+        final Dependency child = dependency("child", Collections.emptyList());
+        final Dependency good = dependency("good", Collections.singletonList(child));
+        final Dependency corrupt = dependency("corrupt", Collections.emptyList());
+        final Dependency missing = dependency("missing", Collections.emptyList());
+        for (final Dependency dependency : Arrays.asList(good, child, corrupt)) {
+            final File file = filePathStrategy.selectFileFor(dependency);
+            file.getParentFile().mkdirs();
+            Files.write(file.toPath(), (dependency == corrupt ? "bad" : "ok").getBytes(StandardCharsets.UTF_8));
+        }
+        final AtomicInteger verifications = new AtomicInteger();
+        final DependencyVerifier verifier = new DependencyVerifier() {
+            @Override
+            public boolean verify(final File file, final Dependency dependency) throws IOException {
+                verifications.incrementAndGet();
+                return "ok".equals(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public File getChecksumFile(final Dependency dependency) {
+                return null;
+            }
+        };
+        final InjectionHelper helper = new InjectionHelper(
+            dependency -> Optional.empty(),
+            filePathStrategy::selectFileFor,
+            verifier,
+            (dependency, file) -> file,
+            filePathStrategy,
+            new SingleFlight<>(),
+            new SingleFlight<>()
+        );
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final DependencyScheduler scheduler = new DependencyScheduler(helper, executor);
+
+        final CacheVerificationReport report = scheduler.verifyCache(Arrays.asList(good, corrupt, missing));
+
+        Assertions.assertEquals(new HashSet<>(Arrays.asList(good, child)), report.getVerified());
+        Assertions.assertEquals(Collections.singleton(corrupt), report.getStale());
+        Assertions.assertEquals(Collections.singleton(missing), report.getMissing());
+        Assertions.assertFalse(filePathStrategy.selectFileFor(corrupt).exists(), "Stale copies must be removed");
+
+        final int bulkVerifications = verifications.get();
+        helper.verify(good, filePathStrategy.selectFileFor(good));
+        executor.shutdown();
+        Assertions.assertEquals(bulkVerifications, verifications.get(), "Verified copies must not be hashed again");
+    }
+
+    @Test
+    public void testExhaustiveCacheVerificationListsMissingSubtrees() throws Exception {
+        final File directory = Files.createTempDirectory("slimjar-test").toFile();
+        final FilePathStrategy filePathStrategy = FilePathStrategy.createDefault(directory);
+        final Dependency child = dependency("child", Collections.emptyList());
+        final Dependency missing = dependency("missing", Collections.singletonList(child));
+        final Dependency bomChild = dependency("bom-child", Collections.emptyList());
+        final Dependency bom = dependency("bom", Collections.singletonList(bomChild));
+        final ResolutionResult aggregator = new ResolutionResult(null, null, null, true, true);
+        final InjectionHelper helper = new InjectionHelper(
+            dependency -> dependency == bom ? Optional.of(aggregator) : Optional.empty(),
+            filePathStrategy::selectFileFor,
+            new PassthroughDependencyVerifierFactory().create(dependency -> Optional.empty()),
+            (dependency, file) -> file,
+            filePathStrategy,
+            new SingleFlight<>(),
+            new SingleFlight<>()
+        );
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final DependencyScheduler scheduler = new DependencyScheduler(helper, executor);
+
+        final List<Dependency> dependencies = Arrays.asList(missing, bom);
+        final CacheVerificationReport shallow = scheduler.verifyCache(dependencies);
+        final CacheVerificationReport exhaustive = scheduler.verifyCache(dependencies, true);
+        executor.shutdown();
+
+        Assertions.assertEquals(new HashSet<>(dependencies), shallow.getMissing());
+        Assertions.assertEquals(new HashSet<>(Arrays.asList(missing, child, bom)), exhaustive.getMissing(), "Transitives of aggregators must stay out of the report");
+    }
+
+    @Test
+    public void testCacheVerificationDoesNotDescendIntoAggregatorMarkers() throws Exception {
+        final File directory = Files.createTempDirectory("slimjar-test").toFile();
+        final FilePathStrategy filePathStrategy = FilePathStrategy.createDefault(directory);
+        final Dependency bomChild = dependency("bom-child", Collections.emptyList());
+        final Dependency bom = dependency("bom", Collections.singletonList(bomChild));
+        final File marker = filePathStrategy.selectFileFor(bom);
+        marker.getParentFile().mkdirs();
+        Files.write(marker.toPath(), "bom-file".getBytes(StandardCharsets.UTF_8));
+        final InjectionHelper helper = new InjectionHelper(
+            dependency -> Optional.empty(),
+            filePathStrategy::selectFileFor,
+            new PassthroughDependencyVerifierFactory().create(dependency -> Optional.empty()),
+            (dependency, file) -> file,
+            filePathStrategy,
+            new SingleFlight<>(),
+            new SingleFlight<>()
+        );
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final DependencyScheduler scheduler = new DependencyScheduler(helper, executor);
+
+        final CacheVerificationReport shallow = scheduler.verifyCache(Collections.singletonList(bom));
+        final CacheVerificationReport exhaustive = scheduler.verifyCache(Collections.singletonList(bom), true);
+        executor.shutdown();
+
+        Assertions.assertEquals(Collections.singleton(bom), shallow.getAggregators());
+        Assertions.assertEquals(Collections.singleton(bom), exhaustive.getStatuses().keySet(), "Transitives of aggregator markers must not be scanned");
+        Assertions.assertTrue(exhaustive.getRefetchRequired().isEmpty());
+    }
+
+    private static Dependency dependency(final String artifactId, final List<Dependency> transitive) {
+        return new Dependency("a.b.c", artifactId, "1.0", null, transitive);
+    }
+
+    private static String fileName(final URL url) {
+        final String path = url.getPath();
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+}
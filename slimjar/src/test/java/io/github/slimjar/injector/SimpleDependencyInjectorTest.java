@@ -0,0 +1,117 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.injector;
+
+import io.github.slimjar.downloader.OfflineDependencyDownloaderFactory;
+import io.github.slimjar.downloader.strategy.FilePathStrategy;
+import io.github.slimjar.downloader.verify.PassthroughDependencyVerifierFactory;
+import io.github.slimjar.injector.helper.InjectionHelperFactory;
+import io.github.slimjar.injector.loader.Injectable;
+import io.github.slimjar.relocation.PassthroughRelocator;
+import io.github.slimjar.resolver.OfflineDependencyResolver;
+import io.github.slimjar.resolver.ResolutionResult;
+import io.github.slimjar.resolver.data.Dependency;
+import io.github.slimjar.resolver.data.DependencyData;
+
+import java.io.File;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class SimpleDependencyInjectorTest {
+    private static final Dependency BOM_CHILD = dependency("bom-child", Collections.emptyList());
+    private static final Dependency BOM = dependency("bom", Collections.singletonList(BOM_CHILD));
+    private static final Dependency CHILD = dependency("child", Collections.emptyList());
+    private static final Dependency LIBRARY = dependency("library", Collections.singletonList(CHILD));
+
+    @Test
+    public void testWarmOfflineStartInjectsWithoutAggregatorChildren() throws Exception {
+        final Path directory = Files.createTempDirectory("slimjar-test");
+        final FilePathStrategy filePathStrategy = FilePathStrategy.createDefault(directory.toFile());
+        write(filePathStrategy.selectFileFor(LIBRARY), "jar");
+        write(filePathStrategy.selectFileFor(CHILD), "jar");
+        // Left behind by the online start that resolved the aggregator, its children were never fetched.
+        write(filePathStrategy.selectFileFor(BOM), "bom-file");
+        final List<String> injected = new ArrayList<>();
+
+        inject(directory, url -> injected.add(new File(url.getPath()).getName()));
+
+        Assertions.assertEquals(Arrays.asList("library-1.0.jar", "child-1.0.jar"), injected);
+    }
+
+    @Test
+    public void testColdOfflineStartListsEveryMissingDependency() throws Exception {
+        final Path directory = Files.createTempDirectory("slimjar-test");
+        final List<URL> injected = new ArrayList<>();
+
+        final MissingDependenciesException exception = Assertions.assertThrows(MissingDependenciesException.class, () -> inject(directory, injected::add));
+
+        Assertions.assertEquals(new HashSet<>(Arrays.asList(LIBRARY, CHILD)), exception.getMissing(), "Known aggregators are not missing");
+        Assertions.assertTrue(injected.isEmpty(), "Nothing may be injected when dependencies are missing");
+    }
+
+    private static void inject(final Path directory, final Injectable injectable) throws Exception {
+        final InjectionHelperFactory helperFactory = new InjectionHelperFactory(
+            directory,
+            rules -> new PassthroughRelocator(),
+            url -> () -> null,
+            relocator -> (dependency, file) -> file,
+            factory -> null,
+            (repositories, preResolved, enquirerFactory) -> new OfflineDependencyResolver(preResolved, null),
+            repository -> dependency -> null,
+            new OfflineDependencyDownloaderFactory(),
+            new PassthroughDependencyVerifierFactory(),
+            (repositories, mirrors) -> repositories
+        );
+        final Map<String, ResolutionResult> preResolved = Collections.singletonMap(BOM.toString(), new ResolutionResult(null, null, null, true, true));
+        final DependencyData data = new DependencyData(Collections.emptySet(), Collections.emptySet(), Arrays.asList(LIBRARY, BOM), Collections.emptySet());
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            new SimpleDependencyInjector(helperFactory, executor, PipelineConfiguration.builder().build(), true).inject(injectable, data, preResolved);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void write(final File file, final String content) throws Exception {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Dependency dependency(final String artifactId, final List<Dependency> transitive) {
+        return new Dependency("a.b.c", artifactId, "1.0", null, transitive);
+    }
+}
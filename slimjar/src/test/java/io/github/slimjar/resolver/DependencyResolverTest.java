@@ -26,14 +26,28 @@ package io.github.slimjar.resolver;
 
 import io.github.slimjar.resolver.data.Dependency;
 import io.github.slimjar.resolver.data.Repository;
+import io.github.slimjar.resolver.enquirer.PingingRepositoryEnquirer;
 import io.github.slimjar.resolver.enquirer.RepositoryEnquirerFactory;
 import io.github.slimjar.resolver.pinger.URLPinger;
+import io.github.slimjar.resolver.strategy.MavenChecksumPathResolutionStrategy;
+import io.github.slimjar.resolver.strategy.MavenPathResolutionStrategy;
+import io.github.slimjar.resolver.strategy.MavenPomPathResolutionStrategy;
 
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
@@ -89,4 +103,227 @@ public class DependencyResolverTest {
         Assertions.assertEquals(url1, url2, "Impure resolution: Instance");
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testCachingDependencyResolverResolveAll() throws MalformedURLException {
+        final AtomicInteger enquiries = new AtomicInteger();
+        final RepositoryEnquirerFactory repositoryEnquirerFactory = repository -> dependency -> {
+            enquiries.incrementAndGet();
+            return new DummyRepositoryEnquirer().enquire(dependency);
+        };
+        final Collection<Repository> repositories = Collections.singleton(new Repository(new URL("https://repo.tld/")));
+        final DependencyResolver dependencyResolver = new CachingDependencyResolver(new URLPinger() {
+            @Override
+            public boolean ping(URL url) {
+                return true;
+            }
+
+            @Override
+            public boolean isSupported(URL url) {
+                return true;
+            }
+        }, repositories, repositoryEnquirerFactory, Collections.emptyMap());
+        final Dependency first = new Dependency("a.b.c", "d", "1.0", null, Collections.emptyList());
+        final Dependency second = new Dependency("a.b.c", "e", "1.0", null, Collections.emptyList());
+
+        final Map<Dependency, CompletableFuture<Optional<ResolutionResult>>> results = dependencyResolver.resolveAll(Arrays.asList(first, second, first));
+
+        Assertions.assertEquals(Arrays.asList(first, second), new ArrayList<>(results.keySet()), "Results must follow the given order without duplicates");
+        results.forEach((dependency, future) -> Assertions.assertTrue(future.join().isPresent(), "Unresolved: " + dependency));
+        Assertions.assertEquals(2, enquiries.get(), "Each dependency must be enquired once");
+    }
+
+    @Test
+    public void testCachingDependencyResolverSharesSingleResolutionsInFlight() throws Exception {
+        final Dependency slow = new Dependency("a.b.c", "slow", "1.0", null, Collections.emptyList());
+        final Dependency fast = new Dependency("a.b.c", "fast", "1.0", null, Collections.emptyList());
+        final AtomicInteger slowEnquiries = new AtomicInteger();
+        final CountDownLatch slowStarted = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final RepositoryEnquirerFactory repositoryEnquirerFactory = repository -> dependency -> {
+            if (dependency.equals(slow)) {
+                slowEnquiries.incrementAndGet();
+                slowStarted.countDown();
+                try {
+                    release.await();
+                } catch (final InterruptedException exception) {
+                    throw new IllegalStateException(exception);
+                }
+            }
+            return new DummyRepositoryEnquirer().enquire(dependency);
+        };
+        final Collection<Repository> repositories = Collections.singleton(new Repository(new URL("https://repo.tld/")));
+        final CachingDependencyResolver dependencyResolver = new CachingDependencyResolver(new URLPinger() {
+            @Override
+            public boolean ping(URL url) {
+                return true;
+            }
+
+            @Override
+            public boolean isSupported(URL url) {
+                return true;
+            }
+        }, repositories, repositoryEnquirerFactory, Collections.emptyMap());
+
+        final CompletableFuture<Optional<ResolutionResult>> first = CompletableFuture.supplyAsync(() -> dependencyResolver.resolve(slow));
+        Assertions.assertTrue(slowStarted.await(5, TimeUnit.SECONDS));
+        final CompletableFuture<Optional<ResolutionResult>> second = CompletableFuture.supplyAsync(() -> dependencyResolver.resolve(slow));
+        Assertions.assertTrue(dependencyResolver.resolve(fast).isPresent(), "Other dependencies must not wait on an enquiry in flight");
+        release.countDown();
+
+        Assertions.assertTrue(first.get(5, TimeUnit.SECONDS).isPresent());
+        Assertions.assertTrue(second.get(5, TimeUnit.SECONDS).isPresent());
+        Assertions.assertEquals(1, slowEnquiries.get(), "Concurrent resolutions of the same dependency must share one enquiry");
+    }
+
+    @Test
+    public void testCachingDependencyResolverSkipsFilteredRepositories() throws MalformedURLException {
+        final RepositoryEnquirerFactory repositoryEnquirerFactory = new DummyRepositoryEnquirerFactory();
+        final Collection<Repository> repositories = Collections.singleton(new Repository(new URL("https://repo.tld/"), Collections.singletonList("com.private.*"), Collections.emptyList()));
+        final DependencyResolver dependencyResolver = new CachingDependencyResolver(new URLPinger() {
+            @Override
+            public boolean ping(URL url) {
+                return true;
+            }
+
+            @Override
+            public boolean isSupported(URL url) {
+                return true;
+            }
+        }, repositories, repositoryEnquirerFactory, Collections.emptyMap());
+
+        Assertions.assertTrue(dependencyResolver.resolve(new Dependency("com.private.lib", "d", "1.0", null, Collections.emptyList())).isPresent(), "Included group must be enquired");
+        Assertions.assertTrue(dependencyResolver.resolve(new Dependency("a.b.c", "d", "1.0", null, Collections.emptyList())).isEmpty(), "Filtered group must not be enquired");
+    }
+
+    @Test
+    public void testCachingDependencyResolverRemembersFailures() throws Exception {
+        final AtomicInteger enquiries = new AtomicInteger();
+        final RepositoryEnquirerFactory repositoryEnquirerFactory = repository -> dependency -> {
+            enquiries.incrementAndGet();
+            return null;
+        };
+        final Collection<Repository> repositories = Collections.singleton(new Repository(new URL("https://repo.tld/")));
+        final URLPinger pinger = new URLPinger() {
+            @Override
+            public boolean ping(URL url) {
+                return true;
+            }
+
+            @Override
+            public boolean isSupported(URL url) {
+                return true;
+            }
+        };
+        final Path storeFile = Files.createTempDirectory("slimjar-test").resolve("resolutions.index");
+        final Dependency dependency = new Dependency("a.b.c", "missing", "1.0", null, Collections.emptyList());
+
+        final DependencyResolver first = new CachingDependencyResolver(pinger, repositories, repositoryEnquirerFactory, Collections.emptyMap(), new RepositoryScheduler(Runnable::run), ResolutionStore.load(storeFile));
+        Assertions.assertTrue(first.resolve(dependency).isEmpty());
+        Assertions.assertTrue(first.resolve(dependency).isEmpty());
+        final DependencyResolver restarted = new CachingDependencyResolver(pinger, repositories, repositoryEnquirerFactory, Collections.emptyMap(), new RepositoryScheduler(Runnable::run), ResolutionStore.load(storeFile));
+        Assertions.assertTrue(restarted.resolve(dependency).isEmpty());
+
+        Assertions.assertEquals(1, enquiries.get(), "Failures must be remembered within the negative TTL, across restarts");
+    }
+
+    @Test
+    public void testCachingDependencyResolverUsesNegativeTtlWithoutStore() throws Exception {
+        final AtomicInteger enquiries = new AtomicInteger();
+        final RepositoryEnquirerFactory repositoryEnquirerFactory = repository -> dependency -> {
+            enquiries.incrementAndGet();
+            return null;
+        };
+        final Collection<Repository> repositories = Collections.singleton(new Repository(new URL("https://repo.tld/")));
+        final URLPinger pinger = new URLPinger() {
+            @Override
+            public boolean ping(URL url) {
+                return true;
+            }
+
+            @Override
+            public boolean isSupported(URL url) {
+                return true;
+            }
+        };
+        final Dependency dependency = new Dependency("a.b.c", "missing", "1.0", null, Collections.emptyList());
+
+        final DependencyResolver resolver = new CachingDependencyResolver(pinger, repositories, repositoryEnquirerFactory, Collections.emptyMap(), new RepositoryScheduler(Runnable::run), null, Duration.ofMillis(-1));
+        Assertions.assertTrue(resolver.resolve(dependency).isEmpty());
+        Assertions.assertTrue(resolver.resolve(dependency).isEmpty());
+
+        Assertions.assertEquals(2, enquiries.get(), "The configured negative TTL must apply without a resolution store");
+    }
+
+    @Test
+    public void testCachingDependencyResolverDoesNotRememberUnreachableRepositories() throws Exception {
+        final AtomicInteger enquiries = new AtomicInteger();
+        final Repository missing = new Repository(new URL("https://missing.tld/"));
+        final RepositoryEnquirerFactory repositoryEnquirerFactory = repository -> dependency -> {
+            enquiries.incrementAndGet();
+            if (repository == missing) return null;
+            throw new IllegalStateException("Connection reset");
+        };
+        final Collection<Repository> repositories = Arrays.asList(missing, new Repository(new URL("https://down.tld/")));
+        final URLPinger pinger = new URLPinger() {
+            @Override
+            public boolean ping(URL url) {
+                return true;
+            }
+
+            @Override
+            public boolean isSupported(URL url) {
+                return true;
+            }
+        };
+        final Path storeFile = Files.createTempDirectory("slimjar-test").resolve("resolutions.index");
+        final Dependency dependency = new Dependency("a.b.c", "missing", "1.0", null, Collections.emptyList());
+
+        final DependencyResolver resolver = new CachingDependencyResolver(pinger, repositories, repositoryEnquirerFactory, Collections.emptyMap(), new RepositoryScheduler(Runnable::run), ResolutionStore.load(storeFile));
+        Assertions.assertTrue(resolver.resolve(dependency).isEmpty());
+        Assertions.assertTrue(resolver.resolve(dependency).isEmpty());
+
+        Assertions.assertEquals(4, enquiries.get(), "A repository without a definite answer must be asked again");
+        Assertions.assertFalse(ResolutionStore.load(storeFile).isUnresolvable(dependency, repositories), "Unreachable repositories must not be persisted as a failure");
+    }
+
+    @Test
+    public void testCachingDependencyResolverDoesNotRememberFailedPings() throws Exception {
+        final AtomicInteger pings = new AtomicInteger();
+        final URLPinger pinger = new URLPinger() {
+            @Override
+            public boolean ping(URL url) {
+                return false;
+            }
+
+            @Override
+            public Status status(URL url) {
+                pings.incrementAndGet();
+                return Status.UNAVAILABLE;
+            }
+
+            @Override
+            public boolean isSupported(URL url) {
+                return true;
+            }
+        };
+        final RepositoryEnquirerFactory repositoryEnquirerFactory = repository -> new PingingRepositoryEnquirer(
+            repository,
+            new MavenPathResolutionStrategy(),
+            new MavenChecksumPathResolutionStrategy("SHA-1", new MavenPathResolutionStrategy()),
+            new MavenPomPathResolutionStrategy(),
+            pinger,
+            Runnable::run
+        );
+        final Collection<Repository> repositories = Collections.singleton(new Repository(new URL("https://repo.tld/")));
+        final Path storeFile = Files.createTempDirectory("slimjar-test").resolve("resolutions.index");
+        final Dependency dependency = new Dependency("a.b.c", "missing", "1.0", null, Collections.emptyList());
+
+        final DependencyResolver resolver = new CachingDependencyResolver(pinger, repositories, repositoryEnquirerFactory, Collections.emptyMap(), new RepositoryScheduler(Runnable::run), ResolutionStore.load(storeFile));
+        Assertions.assertTrue(resolver.resolve(dependency).isEmpty());
+        final int firstPings = pings.get();
+        Assertions.assertTrue(resolver.resolve(dependency).isEmpty());
+
+        Assertions.assertTrue(pings.get() > firstPings, "A repository that could not be pinged must be asked again");
+        Assertions.assertFalse(ResolutionStore.load(storeFile).isUnresolvable(dependency, repositories), "Failed pings must not be persisted as a failure");
+    }
+}
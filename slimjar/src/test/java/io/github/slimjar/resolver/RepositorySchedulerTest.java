@@ -0,0 +1,123 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.resolver;
+
+import io.github.slimjar.resolver.data.Dependency;
+import io.github.slimjar.resolver.enquirer.RepositoryEnquirer;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class RepositorySchedulerTest {
+    private static final Dependency DEPENDENCY = new Dependency("a.b.c", "artifact", "1.0", null, Collections.emptyList());
+
+    @Test
+    public void testStalledRepositoryIsHedgedAndCancelled() throws Exception {
+        final CountDownLatch slowStarted = new CountDownLatch(1);
+        final AtomicBoolean slowInterrupted = new AtomicBoolean();
+        final RepositoryEnquirer slow = dependency -> {
+            slowStarted.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (final InterruptedException exception) {
+                slowInterrupted.set(true);
+            }
+            return null;
+        };
+        final ResolutionResult expected = new DummyRepositoryEnquirer().enquire(DEPENDENCY);
+        final RepositoryEnquirer fast = dependency -> expected;
+        final ExecutorService executor = Executors.newCachedThreadPool();
+        final RepositoryScheduler scheduler = new RepositoryScheduler(executor, Duration.ofMillis(50));
+
+        final long start = System.nanoTime();
+        final ResolutionResult result = scheduler.enquire(DEPENDENCY, Arrays.asList(slow, fast));
+        final long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        Assertions.assertSame(expected, result, "Hedged repository should win");
+        Assertions.assertTrue(elapsed < 5_000, "Stalled repository must not hold up resolution, took " + elapsed + "ms");
+        Assertions.assertTrue(slowStarted.await(1, TimeUnit.SECONDS));
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        Assertions.assertTrue(slowInterrupted.get(), "Losing enquiry must be cancelled");
+        Assertions.assertEquals(Arrays.asList(fast, slow), scheduler.rank(Arrays.asList(slow, fast)), "Fast repository should rank first");
+    }
+
+    @Test
+    public void testMissingDependencyHandsOverImmediately() {
+        final ResolutionResult expected = new DummyRepositoryEnquirer().enquire(DEPENDENCY);
+        final RepositoryEnquirer empty = dependency -> null;
+        final RepositoryEnquirer found = dependency -> expected;
+        final RepositoryScheduler scheduler = new RepositoryScheduler(Runnable::run, Duration.ofSeconds(30));
+
+        Assertions.assertSame(expected, scheduler.enquire(DEPENDENCY, Arrays.asList(empty, found)));
+        Assertions.assertNull(scheduler.enquire(DEPENDENCY, Arrays.asList(empty, empty)), "Nothing found anywhere");
+    }
+
+    @Test
+    public void testDeadlineFailsStalledAndLaterEnquiries() {
+        final RepositoryEnquirer stalled = new RepositoryEnquirer() {
+            @Override
+            public ResolutionResult enquire(final Dependency dependency) {
+                try {
+                    Thread.sleep(10_000);
+                } catch (final InterruptedException ignored) {
+                    // Cancelled once the deadline passed.
+                }
+                return null;
+            }
+
+            @Override
+            public String toString() {
+                return "https://stalled.tld/";
+            }
+        };
+        final ExecutorService executor = Executors.newCachedThreadPool();
+        final RepositoryScheduler scheduler = new RepositoryScheduler(executor, Duration.ofSeconds(5), Duration.ofMillis(100));
+
+        final long start = System.nanoTime();
+        final ResolutionDeadlineExceededException exception = Assertions.assertThrows(ResolutionDeadlineExceededException.class, () -> scheduler.enquire(DEPENDENCY, Collections.singletonList(stalled)));
+        Assertions.assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5), "Must not wait for the stalled repository");
+        Assertions.assertEquals(Collections.singletonList("https://stalled.tld/"), exception.getUnansweredRepositories());
+        Assertions.assertThrows(ResolutionDeadlineExceededException.class, () -> scheduler.enquire(DEPENDENCY, Collections.singletonList(dependency -> null)), "Later enquiries must fail immediately");
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testResolutionDeadlineStartsWithTheFirstEnquiry() throws Exception {
+        final RepositoryScheduler scheduler = new RepositoryScheduler(Runnable::run, Duration.ofSeconds(5), Duration.ofMillis(100));
+        // Time spent between creating the scheduler and resolving must not count against the budget.
+        Thread.sleep(200);
+
+        Assertions.assertNull(scheduler.enquire(DEPENDENCY, Collections.singletonList(dependency -> null)));
+    }
+}
@@ -0,0 +1,125 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.resolver;
+
+import io.github.slimjar.resolver.data.Dependency;
+import io.github.slimjar.resolver.data.Repository;
+
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ResolutionStoreTest {
+
+    @Test
+    public void testResolutionsSurviveReload() throws Exception {
+        final Path file = Files.createTempDirectory("slimjar-test").resolve("resolutions.index");
+        final Dependency dependency = new Dependency("a.b.c", "artifact", "1.0", null, Collections.emptyList());
+        final ResolutionResult result = new ResolutionResult(
+            new Repository(new URL("https://repo.example.com/")),
+            new URL("https://repo.example.com/a/b/c/artifact/1.0/artifact-1.0.jar"),
+            null,
+            false,
+            false
+        );
+
+        ResolutionStore.load(file).record(dependency, result);
+        final ResolutionResult stored = ResolutionStore.load(file).lookup(dependency);
+
+        Assertions.assertNotNull(stored, "Resolution must be persisted");
+        Assertions.assertEquals(result.getDependencyURL().toString(), stored.getDependencyURL().toString());
+        Assertions.assertEquals("https://repo.example.com/", stored.getRepository().url().toString());
+        Assertions.assertNull(stored.getChecksumURL(), "Absent checksum URL must stay absent");
+        Assertions.assertTrue(stored.isChecked(), "Stored resolutions must not be pinged again");
+    }
+
+    @Test
+    public void testSnapshotResolutionsExpireSeparately() throws Exception {
+        final Path file = Files.createTempDirectory("slimjar-test").resolve("resolutions.index");
+        final Dependency release = new Dependency("a.b.c", "release", "1.0", null, Collections.emptyList());
+        final Dependency snapshot = new Dependency("a.b.c", "snapshot", "1.0-SNAPSHOT", null, Collections.emptyList());
+        final ResolutionStore store = ResolutionStore.load(file, null, Duration.ofMillis(-1));
+
+        store.record(release, result("release"));
+        store.record(snapshot, result("snapshot"));
+
+        Assertions.assertNotNull(store.lookup(release), "Release TTL is unlimited");
+        Assertions.assertNull(store.lookup(snapshot), "Snapshot TTL has already passed");
+    }
+
+    @Test
+    public void testFailuresExpireAndAreOverriddenByResolutions() throws Exception {
+        final Path file = Files.createTempDirectory("slimjar-test").resolve("resolutions.index");
+        final Dependency remembered = new Dependency("a.b.c", "remembered", "1.0", null, Collections.emptyList());
+        final Dependency published = new Dependency("a.b.c", "published", "1.0", null, Collections.emptyList());
+
+        final List<Repository> repositories = List.of(new Repository(new URL("https://repo.example.com/")));
+
+        final ResolutionStore store = ResolutionStore.load(file);
+        store.recordFailure(remembered, repositories);
+        store.recordFailure(published, repositories);
+        store.record(published, result("published"));
+
+        final ResolutionStore reloaded = ResolutionStore.load(file);
+        Assertions.assertTrue(reloaded.isUnresolvable(remembered, repositories), "Failures must survive a reload");
+        Assertions.assertNull(reloaded.lookup(remembered), "Failures must never be returned as resolutions");
+        Assertions.assertFalse(reloaded.isUnresolvable(published, repositories), "A later resolution must replace the failure");
+        Assertions.assertNotNull(reloaded.lookup(published));
+        Assertions.assertFalse(ResolutionStore.load(file, null, null, Duration.ofMillis(-1)).isUnresolvable(remembered, repositories), "Negative TTL has already passed");
+    }
+
+    @Test
+    public void testFailuresOnlyApplyToTheRepositoriesAsked() throws Exception {
+        final Path file = Files.createTempDirectory("slimjar-test").resolve("resolutions.index");
+        final Dependency dependency = new Dependency("a.b.c", "private", "1.0", null, Collections.emptyList());
+        final Repository central = new Repository(new URL("https://repo.example.com/"));
+        final Repository internal = new Repository(new URL("https://internal.example.com/"));
+
+        // Recorded by another application sharing the download directory, which only knows central.
+        ResolutionStore.load(file).recordFailure(dependency, List.of(central));
+
+        final ResolutionStore reloaded = ResolutionStore.load(file);
+        Assertions.assertTrue(reloaded.isUnresolvable(dependency, List.of(central)));
+        Assertions.assertFalse(reloaded.isUnresolvable(dependency, List.of(central, internal)), "A repository that was not asked may still have it");
+
+        reloaded.recordFailure(dependency, List.of(internal));
+        Assertions.assertTrue(ResolutionStore.load(file).isUnresolvable(dependency, List.of(central, internal)), "Failures within the TTL must add up");
+    }
+
+    private static ResolutionResult result(final String artifactId) throws Exception {
+        return new ResolutionResult(
+            new Repository(new URL("https://repo.example.com/")),
+            new URL("https://repo.example.com/" + artifactId + ".jar"),
+            new URL("https://repo.example.com/" + artifactId + ".jar.sha1"),
+            false,
+            false
+        );
+    }
+}
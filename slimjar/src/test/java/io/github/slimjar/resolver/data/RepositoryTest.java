@@ -0,0 +1,54 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.resolver.data;
+
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class RepositoryTest {
+
+    @Test
+    public void testGroupFilters() throws Exception {
+        final Repository repository = new Repository(
+            new URL("https://repo.tld/"),
+            Arrays.asList("com.example", "org.example.*"),
+            Collections.singletonList("org.example.internal*")
+        );
+
+        Assertions.assertTrue(repository.mayContain(dependency("com.example")), "Exact include");
+        Assertions.assertTrue(repository.mayContain(dependency("org.example.api")), "Wildcard include");
+        Assertions.assertFalse(repository.mayContain(dependency("com.example.sub")), "Exact include must not match subgroups");
+        Assertions.assertFalse(repository.mayContain(dependency("org.example.internal.tools")), "Excluded group");
+        Assertions.assertFalse(repository.mayContain(dependency("net.other")), "Group outside the includes");
+        Assertions.assertTrue(new Repository(new URL("https://repo.tld/")).mayContain(dependency("net.other")), "Unfiltered repository");
+    }
+
+    private static Dependency dependency(final String groupId) {
+        return new Dependency(groupId, "artifact", "1.0", null, Collections.emptyList());
+    }
+}
@@ -24,9 +24,15 @@
 
 package io.github.slimjar.resolver.pinger;
 
+import com.sun.net.httpserver.HttpServer;
+import io.github.slimjar.resolver.data.Repository;
+import io.github.slimjar.util.CircuitBreaker;
+
 import java.io.IOException;
 import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
 import java.net.URL;
+import java.time.Duration;
 import javax.net.ssl.HttpsURLConnection;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Assertions;
@@ -98,6 +104,24 @@ public class URLPingerTest {
         Assertions.assertFalse(result, "Exception should fail");
     }
 
+    @Test
+    public void testHttpURLPingerUsesHeadAndCachesResult() throws IOException {
+        final var mockURL = Mockito.mock(URL.class);
+        final var httpsURLConnection = Mockito.mock(HttpsURLConnection.class);
+
+        Mockito.when(mockURL.openConnection()).thenReturn(httpsURLConnection);
+        Mockito.when(mockURL.getProtocol()).thenReturn("HTTPS");
+        Mockito.doReturn(HttpURLConnection.HTTP_OK).when(httpsURLConnection).getResponseCode();
+
+        final URLPinger urlPinger = new HttpURLPinger();
+        Assertions.assertTrue(urlPinger.ping(mockURL), "Valid https URL");
+        Assertions.assertTrue(urlPinger.ping(mockURL), "Cached result should be returned");
+
+        Mockito.verify(httpsURLConnection).setRequestMethod("HEAD");
+        Mockito.verify(httpsURLConnection, Mockito.never()).disconnect();
+        Mockito.verify(mockURL, Mockito.times(1)).openConnection();
+    }
+
     @Test
     public void testHttpURLPingerUnsupportedProtocol() {
         final var mockURL = Mockito.mock(URL.class);
@@ -108,4 +132,25 @@ public class URLPingerTest {
         Assertions.assertFalse(result, "Non-OK should fail");
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testHttpURLPingerTracksRepositoriesOnTheSameHostSeparately() throws IOException {
+        final HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            exchange.sendResponseHeaders(exchange.getRequestURI().getPath().startsWith("/releases/") ? 503 : 200, -1);
+            exchange.close();
+        });
+        server.start();
+        try {
+            final String base = "http://127.0.0.1:" + server.getAddress().getPort();
+            final Repository releases = new Repository(new URL(base + "/releases"));
+            final Repository snapshots = new Repository(new URL(base + "/snapshots"));
+            final URLPinger urlPinger = new HttpURLPinger(Duration.ofSeconds(5), Duration.ofSeconds(5), new CircuitBreaker(1, Duration.ofMinutes(1)));
+
+            Assertions.assertEquals(URLPinger.Status.UNAVAILABLE, urlPinger.status(new URL(base + "/releases/a.jar"), releases));
+            Assertions.assertEquals(URLPinger.Status.FOUND, urlPinger.status(new URL(base + "/snapshots/a.jar"), snapshots), "A failing repository must not open the circuit of its neighbour");
+            Assertions.assertEquals(URLPinger.Status.UNAVAILABLE, urlPinger.status(new URL(base + "/releases/b.jar"), releases));
+        } finally {
+            server.stop(0);
+        }
+    }
+}
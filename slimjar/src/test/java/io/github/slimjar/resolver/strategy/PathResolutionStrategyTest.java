@@ -24,14 +24,32 @@
 
 package io.github.slimjar.resolver.strategy;
 
+import com.sun.net.httpserver.HttpServer;
+import io.github.slimjar.downloader.DependencyDownloader;
+import io.github.slimjar.downloader.URLDependencyDownloaderFactory;
+import io.github.slimjar.downloader.output.DependencyOutputWriterFactory;
+import io.github.slimjar.downloader.strategy.FilePathStrategy;
+import io.github.slimjar.downloader.verify.PassthroughDependencyVerifierFactory;
+import io.github.slimjar.resolver.DependencyResolver;
+import io.github.slimjar.resolver.ResolutionResult;
 import io.github.slimjar.resolver.data.Dependency;
 import io.github.slimjar.resolver.data.Repository;
+import io.github.slimjar.resolver.pinger.HttpURLPinger;
 
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -48,4 +66,135 @@ public class PathResolutionStrategyTest {
         Assertions.assertEquals(new HashSet<>(resolvedPath), new HashSet<>(Collections.singleton("https://repo.tld/a/b/c/d/1.0/d-1.0.jar")), "Maven Path Resolution (LOCAL)");
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testPathResolutionStrategySnapshotMetadata() throws Exception {
+        final String metadata = "<metadata><groupId>a.b.c</groupId><artifactId>d</artifactId><version>1.0-SNAPSHOT</version><versioning>"
+                + "<snapshot><timestamp>20240101.120000</timestamp><buildNumber>3</buildNumber></snapshot><snapshotVersions>"
+                + "<snapshotVersion><classifier>sources</classifier><extension>jar</extension><value>1.0-20240101.120000-3</value></snapshotVersion>"
+                + "<snapshotVersion><extension>jar</extension><value>1.0-20240101.120000-3</value></snapshotVersion>"
+                + "</snapshotVersions></versioning></metadata>";
+        final AtomicInteger requests = new AtomicInteger();
+        final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/a/b/c/d/1.0-SNAPSHOT/maven-metadata.xml", exchange -> {
+            requests.incrementAndGet();
+            final byte[] body = metadata.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.start();
+        try {
+            final String repoString = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+            final Repository repository = new Repository(new URL(repoString));
+            final Dependency dependency = new Dependency("a.b.c", "d", "1.0-SNAPSHOT", "outdated", Collections.emptySet());
+            final PathResolutionStrategy pathResolutionStrategy = new MavenMetadataSnapshotPathResolutionStrategy(
+                Files.createTempDirectory("slimjar-test"),
+                new MavenSnapshotPathResolutionStrategy(),
+                Runnable::run,
+                null
+            );
+
+            final Collection<String> resolvedPath = pathResolutionStrategy.pathTo(repository, dependency);
+            pathResolutionStrategy.pathTo(repository, dependency);
+
+            Assertions.assertEquals(Collections.singletonList(repoString + "a/b/c/d/1.0-SNAPSHOT/d-1.0-20240101.120000-3.jar"), resolvedPath, "Maven Path Resolution (SNAPSHOT METADATA)");
+            Assertions.assertEquals(1, requests.get(), "Metadata must be cached");
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testPurgedSnapshotFetchesMetadataAgain() throws Exception {
+        final AtomicReference<String> timestamp = new AtomicReference<>("20240101.120000");
+        final AtomicInteger requests = new AtomicInteger();
+        final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/a/b/c/d/1.0-SNAPSHOT/maven-metadata.xml", exchange -> {
+            requests.incrementAndGet();
+            final byte[] body = ("<metadata><version>1.0-SNAPSHOT</version><versioning><snapshot><timestamp>" + timestamp.get()
+                    + "</timestamp><buildNumber>1</buildNumber></snapshot></versioning></metadata>").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        // Only the newest snapshot is still hosted, anything else is answered with 404.
+        server.createContext("/a/b/c/d/1.0-SNAPSHOT/d-1.0-20240202.120000-1.jar", exchange -> {
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+        try {
+            final String repoString = "http://127.0.0.1:" + server.getAddress().getPort() + "/";
+            final Repository repository = new Repository(new URL(repoString));
+            final Dependency dependency = new Dependency("a.b.c", "d", "1.0-SNAPSHOT", null, Collections.emptySet());
+            final Path cacheDirectory = Files.createTempDirectory("slimjar-test");
+            new MavenMetadataSnapshotPathResolutionStrategy(cacheDirectory, new MavenSnapshotPathResolutionStrategy(), Runnable::run, null).pathTo(repository, dependency);
+            timestamp.set("20240202.120000");
+
+            // A later start still trusts its cached metadata, which points at the purged snapshot.
+            final Collection<String> resolvedPath = new MavenMetadataSnapshotPathResolutionStrategy(cacheDirectory, new MavenSnapshotPathResolutionStrategy(), Runnable::run, null).pathTo(repository, dependency);
+
+            Assertions.assertEquals(Collections.singletonList(repoString + "a/b/c/d/1.0-SNAPSHOT/d-1.0-20240202.120000-1.jar"), resolvedPath);
+            Assertions.assertEquals(2, requests.get(), "Metadata must be fetched again once");
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    public void testSnapshotUpdateLeadsToDownloadingAgain() throws Exception {
+        final AtomicReference<String> timestamp = new AtomicReference<>("20240101.120000");
+        final HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/a/b/c/d/1.0-SNAPSHOT/maven-metadata.xml", exchange -> {
+            final byte[] body = ("<metadata><version>1.0-SNAPSHOT</version><versioning><snapshot><timestamp>" + timestamp.get()
+                    + "</timestamp><buildNumber>1</buildNumber></snapshot></versioning></metadata>").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        // Every build is still hosted, its content is its timestamp.
+        server.createContext("/a/b/c/d/1.0-SNAPSHOT/", exchange -> {
+            final String name = exchange.getRequestURI().getPath();
+            final byte[] body = name.substring(name.indexOf("d-1.0-") + "d-1.0-".length()).getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, "HEAD".equals(exchange.getRequestMethod()) ? -1 : body.length);
+            if (!"HEAD".equals(exchange.getRequestMethod())) {
+                exchange.getResponseBody().write(body);
+            }
+            exchange.close();
+        });
+        server.start();
+        try {
+            final Repository repository = new Repository(new URL("http://127.0.0.1:" + server.getAddress().getPort() + "/"));
+            final Dependency dependency = new Dependency("a.b.c", "d", "1.0-SNAPSHOT", null, Collections.emptySet());
+            final Path cacheDirectory = Files.createTempDirectory("slimjar-test");
+            final Path downloadDirectory = Files.createTempDirectory("slimjar-test");
+            final FilePathStrategy filePathStrategy = FilePathStrategy.createDefault(downloadDirectory.toFile());
+            final SnapshotUpdateListener listener = updated -> Files.deleteIfExists(filePathStrategy.selectFileFor(updated).toPath());
+
+            Assertions.assertEquals("20240101.120000-1.jar", download(cacheDirectory, filePathStrategy, listener, repository, dependency));
+            timestamp.set("20240202.120000");
+
+            // A later start past the update interval refreshes the metadata, the cached jar must not win over the newer build.
+            Assertions.assertEquals("20240202.120000-1.jar", download(cacheDirectory, filePathStrategy, listener, repository, dependency));
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    // One start: resolve through a fresh strategy instance with a zero update interval, then download.
+    private static String download(final Path cacheDirectory, final FilePathStrategy filePathStrategy, final SnapshotUpdateListener listener, final Repository repository, final Dependency dependency) throws Exception {
+        final PathResolutionStrategy strategy = new MavenMetadataSnapshotPathResolutionStrategy(cacheDirectory, new MavenSnapshotPathResolutionStrategy(), Runnable::run, Duration.ZERO, new HttpURLPinger(), listener);
+        final DependencyResolver resolver = dep -> Optional.of(new ResolutionResult(repository, url(strategy.pathTo(repository, dep).iterator().next()), null, false, true));
+        resolver.resolve(dependency);
+        final DependencyDownloader downloader = new URLDependencyDownloaderFactory().create(new DependencyOutputWriterFactory(filePathStrategy), resolver, new PassthroughDependencyVerifierFactory().create(resolver));
+        return new String(Files.readAllBytes(downloader.download(dependency).toPath()), StandardCharsets.UTF_8);
+    }
+
+    private static URL url(final String url) {
+        try {
+            return new URL(url);
+        } catch (final MalformedURLException exception) {
+            throw new IllegalArgumentException(exception);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.util;
+
+import java.time.Duration;
+import java.util.Collections;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class CircuitBreakerTest {
+
+    @Test
+    public void testOpensAfterConsecutiveFailures() {
+        final CircuitBreaker breaker = new CircuitBreaker(2, Duration.ofMinutes(1));
+        breaker.recordFailure("https://down.tld");
+        breaker.recordSuccess("https://down.tld");
+        breaker.recordFailure("https://down.tld");
+        Assertions.assertTrue(breaker.allows("https://down.tld"), "A success must reset the failure count");
+
+        breaker.recordFailure("https://down.tld");
+        Assertions.assertFalse(breaker.allows("https://down.tld"));
+        Assertions.assertTrue(breaker.allows("https://up.tld"), "Circuits must be tracked per key");
+        Assertions.assertEquals(Collections.singleton("https://down.tld"), breaker.getOpen());
+    }
+
+    @Test
+    public void testAllowsCallsAfterCoolDown() {
+        final CircuitBreaker breaker = new CircuitBreaker(2, Duration.ZERO);
+        breaker.recordFailure("https://down.tld");
+        breaker.recordFailure("https://down.tld");
+        Assertions.assertTrue(breaker.allows("https://down.tld"), "Calls must be allowed once the cool-down has passed");
+        breaker.recordSuccess("https://down.tld");
+        Assertions.assertTrue(breaker.getOpen().isEmpty());
+    }
+}
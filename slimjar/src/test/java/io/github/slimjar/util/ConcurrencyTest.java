@@ -0,0 +1,136 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.util;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ConcurrencyTest {
+
+    @Test
+    public void testFirstNonNullPrefersListOrder() {
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        final List<Supplier<String>> suppliers = Arrays.asList(
+            () -> null,
+            () -> {
+                sleep(50);
+                return "second";
+            },
+            () -> "third"
+        );
+
+        final String result = Concurrency.firstNonNull(executor, suppliers);
+        executor.shutdown();
+
+        Assertions.assertEquals("second", result, "Earlier non-null results must win even if they finish later");
+    }
+
+    @Test
+    public void testFirstNonNullRunsOnCallerWithoutWorkers() {
+        final List<Supplier<String>> suppliers = Arrays.asList(() -> null, () -> "found");
+        // An executor that never runs anything must not block the caller.
+        final String result = Concurrency.firstNonNull(task -> { }, suppliers);
+        Assertions.assertEquals("found", result);
+        Assertions.assertNull(Concurrency.firstNonNull(Runnable::run, Collections.<Supplier<String>>emptyList()));
+    }
+
+    @Test
+    public void testBoundedExecutorLimitsConcurrency() throws InterruptedException {
+        final ExecutorService delegate = Executors.newCachedThreadPool();
+        final BoundedExecutor executor = new BoundedExecutor(delegate, 2);
+        final AtomicInteger running = new AtomicInteger();
+        final AtomicInteger peak = new AtomicInteger();
+        final CountDownLatch done = new CountDownLatch(10);
+
+        for (int i = 0; i < 10; i++) {
+            executor.execute(() -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleep(10);
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+        done.await();
+        delegate.shutdown();
+
+        Assertions.assertTrue(peak.get() <= 2, "At most 2 tasks may run at once, saw " + peak.get());
+    }
+
+    @Test
+    public void testSingleFlightSharesOneComputation() throws Exception {
+        final SingleFlight<String, String> flights = new SingleFlight<>();
+        final AtomicInteger computations = new AtomicInteger();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        final Future<String> first = executor.submit(() -> flights.execute("key", () -> {
+            computations.incrementAndGet();
+            started.countDown();
+            release.await();
+            return "value";
+        }));
+        started.await();
+        final Future<String> second = executor.submit(() -> flights.execute("key", () -> {
+            computations.incrementAndGet();
+            return "other";
+        }));
+        release.countDown();
+
+        Assertions.assertEquals("value", first.get());
+        Assertions.assertEquals("value", second.get(), "Concurrent requesters must share the running computation");
+        Assertions.assertEquals(1, computations.get());
+        Assertions.assertTrue(flights.hasResult("key"));
+        executor.shutdown();
+    }
+
+    @Test
+    public void testSingleFlightRetriesFailures() throws Exception {
+        final SingleFlight<String, String> flights = new SingleFlight<>();
+        Assertions.assertThrows(IOException.class, () -> flights.execute("key", () -> {
+            throw new IOException("failed");
+        }));
+        Assertions.assertFalse(flights.hasResult("key"));
+        Assertions.assertEquals("value", flights.execute("key", () -> "value"), "Failures must not be cached");
+    }
+
+    private static void sleep(final long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (final InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+//
+// MIT License
+//
+// Copyright (c) 2021 Vaishnav Anil
+//
+// Permission is hereby granted, free of charge, to any person obtaining a copy
+// of this software and associated documentation files (the "Software"), to deal
+// in the Software without restriction, including without limitation the rights
+// to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+// copies of the Software, and to permit persons to whom the Software is
+// furnished to do so, subject to the following conditions:
+//
+// The above copyright notice and this permission notice shall be included in all
+// copies or substantial portions of the Software.
+//
+// THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+// IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+// FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+// AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+// LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+// OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+// SOFTWARE.
+//
+
+package io.github.slimjar.util;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class FileLocksTest {
+
+    @Test
+    public void testOnlyOneWriterProducesTheFile() throws Exception {
+        final File target = new File(Files.createTempDirectory("slimjar-test").toFile(), "artifact.jar");
+        final AtomicInteger writes = new AtomicInteger();
+        final AtomicInteger active = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final List<Future<Boolean>> results = new ArrayList<>();
+
+        for (int i = 0; i < 8; i++) {
+            results.add(executor.submit(() -> FileLocks.withLock(target, () -> {
+                Assertions.assertEquals(1, active.incrementAndGet(), "Lock holders must be exclusive");
+                try {
+                    if (!target.exists()) {
+                        writes.incrementAndGet();
+                        Thread.sleep(10);
+                        Files.write(target.toPath(), new byte[]{1});
+                    }
+                    return target.exists();
+                } finally {
+                    active.decrementAndGet();
+                }
+            })));
+        }
+        for (final Future<Boolean> result : results) {
+            Assertions.assertTrue(result.get());
+        }
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+
+        Assertions.assertEquals(1, writes.get(), "Waiting holders must reuse the finished file");
+    }
+
+    @Test
+    public void testLocksAreReentrant() throws Exception {
+        final File target = new File(Files.createTempDirectory("slimjar-test").toFile(), "artifact.jar");
+        final String result = FileLocks.withLock(target, () -> FileLocks.withLock(target, () -> "nested"));
+        Assertions.assertEquals("nested", result);
+    }
+
+    @Test
+    public void testLockFilesAreKeptInTheLockDirectory() throws Exception {
+        final File directory = Files.createTempDirectory("slimjar-test").toFile();
+        final File target = new File(directory, "a/b/artifact.jar");
+        FileLocks.createLockDirectory(directory.toPath());
+
+        Assertions.assertEquals("locked", FileLocks.withLock(target, () -> "locked"));
+
+        Assertions.assertFalse(new File(target.getPath() + ".lock").exists(), "Lock files must not clutter the shared directory");
+        Assertions.assertTrue(new File(directory, FileLocks.LOCK_DIRECTORY + "/a/b/artifact.jar.lock").exists());
+    }
+}